@@ -0,0 +1,95 @@
+package com.fortune.benchmark;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日柱计算基准：儒略日数取模 对比 原 FortuneController.calculateDayOffset 的逐年累加
+ *
+ * 两者都从公历年月日算出甲子序号，日期在1900-2100年间随机抽取，逐次轮换以免被常量折叠。
+ * 逐年累加的耗时随年份线性增长，儒略日数取模为常数时间。
+ * 运行：mvn -P jmh verify -Djmh.includes=DayPillar
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DayPillarBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final int[] years = new int[SAMPLES];
+
+    private final int[] months = new int[SAMPLES];
+
+    private final int[] days = new int[SAMPLES];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20240101L);
+        long first = LocalDate.of(1900, 1, 1).toEpochDay();
+        long last = LocalDate.of(2100, 12, 31).toEpochDay();
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDate date = LocalDate.ofEpochDay(first + (long) (random.nextDouble() * (last - first)));
+            years[i] = date.getYear();
+            months[i] = date.getMonthValue();
+            days[i] = date.getDayOfMonth();
+        }
+    }
+
+    @Benchmark
+    public int julianDay() {
+        int i = next++ & (SAMPLES - 1);
+        return GanZhiCycle.dayJiaZi(LocalDate.of(years[i], months[i], days[i]).toEpochDay());
+    }
+
+    @Benchmark
+    public int yearLoop() {
+        int i = next++ & (SAMPLES - 1);
+        return calculateDayOffset(years[i], months[i], days[i]);
+    }
+
+    /**
+     * 原 FortuneController.calculateDayOffset，保留作对照（其起点1900-01-01按甲子日计，结果本身有误，这里只比较耗时）
+     */
+    private static int calculateDayOffset(int year, int month, int day) {
+        int totalDays = 0;
+        for (int y = 1900; y < year; y++) {
+            totalDays += isLeapYear(y) ? 366 : 365;
+        }
+
+        int[] monthDays = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        if (isLeapYear(year)) {
+            monthDays[1] = 29;
+        }
+        for (int m = 1; m < month; m++) {
+            totalDays += monthDays[m - 1];
+        }
+        totalDays += day;
+        return (totalDays - 1) % 60;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+    }
+}
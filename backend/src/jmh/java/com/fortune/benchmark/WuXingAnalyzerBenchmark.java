@@ -0,0 +1,165 @@
+package com.fortune.benchmark;
+
+import com.fortune.application.service.AnalysisPregenerationJob;
+import com.fortune.domain.fortune.service.WuXingAnalyzer;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.WuXingAnalysis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 五行分析基准：WuXingAnalyzer 对比 原 FortuneUtils.analyzeWuXing 的字符串拆分加 HashMap 计数
+ *
+ * 八字从全部 518400 种中随机抽取，逐次轮换。WuXingAnalyzer 另外计算了地支藏干加权、
+ * 月令旺衰、平衡度和十神，原实现只按天干地支本气计数。analyzer 与 mapBased 比较各自产出完整结果的耗时，
+ * strength 只测五行计数部分（五个int计数，除返回数组外不分配对象）。
+ * 运行：mvn -P jmh verify -Djmh.includes=WuXing
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WuXingAnalyzerBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private static final Map<String, String> TIAN_GAN_WU_XING = new HashMap<>();
+    static {
+        TIAN_GAN_WU_XING.put("甲", "木");
+        TIAN_GAN_WU_XING.put("乙", "木");
+        TIAN_GAN_WU_XING.put("丙", "火");
+        TIAN_GAN_WU_XING.put("丁", "火");
+        TIAN_GAN_WU_XING.put("戊", "土");
+        TIAN_GAN_WU_XING.put("己", "土");
+        TIAN_GAN_WU_XING.put("庚", "金");
+        TIAN_GAN_WU_XING.put("辛", "金");
+        TIAN_GAN_WU_XING.put("壬", "水");
+        TIAN_GAN_WU_XING.put("癸", "水");
+    }
+
+    private static final Map<String, String> DI_ZHI_WU_XING = new HashMap<>();
+    static {
+        DI_ZHI_WU_XING.put("子", "水");
+        DI_ZHI_WU_XING.put("丑", "土");
+        DI_ZHI_WU_XING.put("寅", "木");
+        DI_ZHI_WU_XING.put("卯", "木");
+        DI_ZHI_WU_XING.put("辰", "土");
+        DI_ZHI_WU_XING.put("巳", "火");
+        DI_ZHI_WU_XING.put("午", "火");
+        DI_ZHI_WU_XING.put("未", "土");
+        DI_ZHI_WU_XING.put("申", "金");
+        DI_ZHI_WU_XING.put("酉", "金");
+        DI_ZHI_WU_XING.put("戌", "土");
+        DI_ZHI_WU_XING.put("亥", "水");
+    }
+
+    private final GanZhi[] charts = new GanZhi[SAMPLES];
+
+    private final String[] formatted = new String[SAMPLES];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20240101L);
+        for (int i = 0; i < SAMPLES; i++) {
+            charts[i] = AnalysisPregenerationJob.chartOf(random.nextInt(AnalysisPregenerationJob.CHART_COUNT));
+            formatted[i] = charts[i].format();
+        }
+    }
+
+    @Benchmark
+    public WuXingAnalysis analyzer() {
+        return WuXingAnalyzer.analyze(charts[next++ & (SAMPLES - 1)]);
+    }
+
+    /**
+     * 只计算五行力量（含藏干与月令），对应原实现中拆分字符串、HashMap计数的部分
+     */
+    @Benchmark
+    public int[] strength() {
+        return WuXingAnalyzer.strength(charts[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public Map<String, Object> mapBased() {
+        return analyzeWuXing(formatted[next++ & (SAMPLES - 1)]);
+    }
+
+    /**
+     * 原 FortuneUtils.analyzeWuXing，保留作对照
+     */
+    private static Map<String, Object> analyzeWuXing(String ganZhi) {
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Integer> wuXingCount = new HashMap<>();
+
+        wuXingCount.put("金", 0);
+        wuXingCount.put("木", 0);
+        wuXingCount.put("水", 0);
+        wuXingCount.put("火", 0);
+        wuXingCount.put("土", 0);
+
+        String[] parts = ganZhi.split("\\s+");
+        for (String part : parts) {
+            if (part.length() >= 2) {
+                String tianGan = part.substring(0, 1);
+                String diZhi = part.substring(1, 2);
+
+                String tianGanWuXing = TIAN_GAN_WU_XING.get(tianGan);
+                if (tianGanWuXing != null) {
+                    wuXingCount.put(tianGanWuXing, wuXingCount.get(tianGanWuXing) + 1);
+                }
+
+                String diZhiWuXing = DI_ZHI_WU_XING.get(diZhi);
+                if (diZhiWuXing != null) {
+                    wuXingCount.put(diZhiWuXing, wuXingCount.get(diZhiWuXing) + 1);
+                }
+            }
+        }
+
+        String primaryWuXing = wuXingCount.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("未知");
+
+        List<String> lackingWuXing = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : wuXingCount.entrySet()) {
+            if (entry.getValue() == 0) {
+                lackingWuXing.add(entry.getKey());
+            }
+        }
+
+        StringBuilder wuXingStr = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : wuXingCount.entrySet()) {
+            if (entry.getValue() > 0) {
+                wuXingStr.append(entry.getKey()).append(entry.getValue()).append("个 ");
+            }
+        }
+
+        result.put("wuXing", wuXingStr.toString().trim());
+        result.put("wuXingLack", String.join("、", lackingWuXing));
+        result.put("primaryWuXing", primaryWuXing);
+        result.put("wuXingCount", wuXingCount);
+        return result;
+    }
+}
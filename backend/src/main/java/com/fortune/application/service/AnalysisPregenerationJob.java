@@ -0,0 +1,193 @@
+package com.fortune.application.service;
+
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.infrastructure.external.DeepSeekService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 命理分析离线预生成任务
+ *
+ * 命理分析提示词由完整八字（四柱与十神）决定，能出现的八字共 60×60×12×12 = 518400 种：
+ * 年柱60种，月柱由年干和月支按五虎遁确定，日柱60种，时柱由日干和时支按五鼠遁确定。
+ * 任务按序号逐个枚举这些八字，以有限并发调用DeepSeek生成带十神的分析，写入分析表 t_fortune_analysis，
+ * 线上请求经 AnalysisCache 直接命中，不再实时调用模型。
+ *
+ * 每批结束后把"提示词版本 下一序号"写入检查点文件，中断后重启从检查点继续；
+ * 本次运行出现失败时检查点停在首个失败的序号，下次启动从那里重试，其后已成功的八字因已在分析表中直接跳过。
+ * 提示词模板或模型变化后版本不同，从头开始。已在分析表中的八字直接跳过，不重复调用。
+ * 以 fortune.pregenerate.enabled=true 启动时运行，可配合本地模拟模型（mock-llm 配置）演练。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fortune.pregenerate.enabled", havingValue = "true")
+public class AnalysisPregenerationJob implements ApplicationRunner {
+
+    /**
+     * 可出现的八字总数
+     */
+    public static final int CHART_COUNT = 60 * 60 * 12 * 12;
+
+    private final DeepSeekService deepSeekService;
+
+    private final ApplicationContext applicationContext;
+
+    @Value("${fortune.pregenerate.parallelism:4}")
+    private int parallelism;
+
+    @Value("${fortune.pregenerate.batch-size:64}")
+    private int batchSize;
+
+    @Value("${fortune.pregenerate.checkpoint-file:pregenerate.checkpoint}")
+    private String checkpointFile;
+
+    /**
+     * 本次最多处理的八字数，0为不限
+     */
+    @Value("${fortune.pregenerate.limit:0}")
+    private int limit;
+
+    /**
+     * 完成后退出应用
+     */
+    @Value("${fortune.pregenerate.exit-on-finish:false}")
+    private boolean exitOnFinish;
+
+    public AnalysisPregenerationJob(DeepSeekService deepSeekService, ApplicationContext applicationContext) {
+        this.deepSeekService = deepSeekService;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 按序号还原八字：序号依次由时支、日柱、月支、年柱组成
+     */
+    public static GanZhi chartOf(int ordinal) {
+        int hourBranch = ordinal % 12;
+        int day = ordinal / 12 % 60;
+        int monthOffset = ordinal / 720 % 12;
+        int year = ordinal / 8640;
+        // 五虎遁：寅月天干由年干确定
+        int month = jiaZi(((year % 5) * 2 + 2 + monthOffset) % 10, (2 + monthOffset) % 12);
+        // 五鼠遁：子时天干由日干确定
+        int hour = (day * 12 + hourBranch) % 60;
+        return GanZhi.of(year, month, day, hour);
+    }
+
+    private static int jiaZi(int stem, int branch) {
+        return Math.floorMod(6 * stem - 5 * branch, 60);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String version = deepSeekService.getPromptVersion();
+        Path checkpoint = Paths.get(checkpointFile);
+        int start = readCheckpoint(checkpoint, version);
+        int end = limit > 0 ? Math.min(CHART_COUNT, start + limit) : CHART_COUNT;
+        log.info("开始预生成命理分析，提示词版本：{}，序号 {} 至 {}，并发 {}", version, start, end, parallelism);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        int generated = 0;
+        int failed = 0;
+        // 本次运行中首个失败的序号，检查点不越过它
+        int firstFailed = -1;
+        long startTime = System.currentTimeMillis();
+        try {
+            for (int batchStart = start; batchStart < end; batchStart += batchSize) {
+                int batchEnd = Math.min(end, batchStart + batchSize);
+                List<Callable<Boolean>> tasks = new ArrayList<>(batchEnd - batchStart);
+                for (int ordinal = batchStart; ordinal < batchEnd; ordinal++) {
+                    GanZhi chart = chartOf(ordinal);
+                    tasks.add(() -> deepSeekService.pregenerateFortuneAnalysis(chart));
+                }
+                List<Future<Boolean>> futures = executor.invokeAll(tasks);
+                for (int i = 0; i < futures.size(); i++) {
+                    if (succeeded(futures.get(i))) {
+                        generated++;
+                    } else {
+                        failed++;
+                        if (firstFailed < 0) {
+                            firstFailed = batchStart + i;
+                        }
+                    }
+                }
+                writeCheckpoint(checkpoint, version, firstFailed >= 0 ? firstFailed : batchEnd);
+                log.info("预生成进度：{}/{}，失败 {}，耗时 {} 秒", batchEnd, CHART_COUNT, failed,
+                         (System.currentTimeMillis() - startTime) / 1000);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("预生成结束，已保存 {}，失败 {}（失败的八字线上首次请求时生成）", generated, failed);
+        if (firstFailed >= 0) {
+            log.info("检查点停在首个失败的序号 {}，下次启动从此处重试", firstFailed);
+        }
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private static boolean succeeded(Future<Boolean> future) throws InterruptedException {
+        try {
+            return Boolean.TRUE.equals(future.get());
+        } catch (ExecutionException e) {
+            log.warn("预生成命理分析失败：{}", e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 读取检查点，文件不存在、无法解析或提示词版本不同时从0开始
+     */
+    private static int readCheckpoint(Path checkpoint, String version) {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        try {
+            String[] parts = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim().split("\\s+");
+            if (parts.length == 2 && parts[0].equals(version)) {
+                int ordinal = Integer.parseInt(parts[1]);
+                if (ordinal >= 0 && ordinal <= CHART_COUNT) {
+                    return ordinal;
+                }
+            }
+            log.info("检查点 {} 属于其他提示词版本或内容无效，从头开始", checkpoint);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("读取检查点 {} 失败，从头开始：{}", checkpoint, e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * 先写临时文件再替换，中断时不会留下半截检查点
+     */
+    private static void writeCheckpoint(Path checkpoint, String version, int nextOrdinal) throws IOException {
+        Path absolute = checkpoint.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temp, (version + " " + nextOrdinal).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,128 @@
+package com.fortune.application.service;
+
+import com.fortune.infrastructure.persistence.repository.FortuneRecordRepository;
+import com.fortune.interfaces.dto.response.FortuneCalculateResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI命理分析流式推送服务
+ *
+ * 以SSE推送DeepSeek的增量输出，客户端收到第一段文字的时间从整段生成完毕缩短到模型首个输出。
+ * 事件依次为：若干 delta（增量文本）、一个 done（recordId、saved），失败时为 error（错误信息）。
+ * 全部输出结束后把完整内容保存到命理记录；客户端断开或超时后下一次推送失败，随即中止读取模型输出。
+ * 推送在DeepSeek调用线程池中执行，与其他AI调用共用同一舱壁，线程池已满时直接推送 error。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class AnalysisStreamService {
+
+    private final FortuneApplicationService fortuneApplicationService;
+
+    private final FortuneRecordRepository fortuneRecordRepository;
+
+    private final AsyncTaskExecutor taskExecutor;
+
+    /**
+     * 单次推送的最长时间
+     */
+    @Value("${fortune.analysis-stream.timeout-ms:60000}")
+    private long timeoutMs;
+
+    public AnalysisStreamService(FortuneApplicationService fortuneApplicationService,
+                                 FortuneRecordRepository fortuneRecordRepository,
+                                 @Qualifier("deepSeekExecutor") AsyncTaskExecutor taskExecutor) {
+        this.fortuneApplicationService = fortuneApplicationService;
+        this.fortuneRecordRepository = fortuneRecordRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 开始推送记录的AI命理分析，立即返回，生成和保存在后台线程中进行
+     */
+    public SseEmitter stream(FortuneCalculateResponse record) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        try {
+            taskExecutor.execute(() -> generate(record, emitter));
+        } catch (TaskRejectedException e) {
+            log.warn("AI分析推送任务被拒绝，记录ID：{}", record.getId());
+            sendErrorAndComplete(emitter, "服务繁忙，请稍后重试");
+        }
+        return emitter;
+    }
+
+    /**
+     * 只推送一个 error 事件后结束
+     */
+    public SseEmitter error(String message) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        sendErrorAndComplete(emitter, message);
+        return emitter;
+    }
+
+    private void generate(FortuneCalculateResponse record, SseEmitter emitter) {
+        String analysis;
+        try {
+            analysis = fortuneApplicationService.streamFortuneAnalysis(record, delta -> send(emitter, "delta", delta));
+        } catch (UncheckedIOException e) {
+            log.info("客户端已断开，停止推送AI分析，记录ID：{}", record.getId());
+            emitter.completeWithError(e.getCause());
+            return;
+        } catch (Exception e) {
+            log.error("推送AI分析失败，记录ID：{}", record.getId(), e);
+            sendErrorAndComplete(emitter, "生成AI分析失败：" + e.getMessage());
+            return;
+        }
+
+        boolean saved = false;
+        try {
+            saved = fortuneRecordRepository.updateAiAnalysis(record.getId(), analysis);
+        } catch (DataAccessException e) {
+            log.error("保存AI分析到数据库失败，记录ID：{}", record.getId(), e);
+        }
+
+        Map<String, Object> done = new HashMap<>();
+        done.put("recordId", record.getId());
+        done.put("saved", saved);
+        try {
+            send(emitter, "done", done);
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e.getCause());
+        }
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalStateException e) {
+            // 超时或已结束后再推送，与客户端断开同样处理
+            throw new UncheckedIOException(new IOException(e.getMessage(), e));
+        }
+    }
+
+    private static void sendErrorAndComplete(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(message));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
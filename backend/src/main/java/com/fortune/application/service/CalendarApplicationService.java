@@ -0,0 +1,146 @@
+package com.fortune.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.LunarCalendar;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.valueobject.LunarDate;
+import com.fortune.infrastructure.cache.LruCache;
+import com.fortune.interfaces.dto.response.ApiResponse;
+import com.fortune.interfaces.dto.response.CalendarDayResponse;
+import com.fortune.interfaces.dto.response.CalendarMonthResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 万年历应用服务
+ *
+ * 月视图由排盘所用的同一份农历表和节气表生成，内容只取决于年月，生成后连同ETag序列化为字节缓存，
+ * 之后同一个月的请求直接写出缓存字节，不再组装对象和序列化。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarApplicationService {
+
+    /**
+     * 缓存的月份数（每月约十KB）
+     */
+    private static final int MONTH_CACHE_SIZE = 600;
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static final DateTimeFormatter TERM_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final ObjectMapper objectMapper;
+
+    private final LruCache<Integer, SerializedMonth> monthCache = new LruCache<>(MONTH_CACHE_SIZE);
+
+    /**
+     * 获取序列化好的月视图（ApiResponse 包装后的JSON）
+     *
+     * @throws IllegalArgumentException 年月超出1900-2100范围
+     */
+    public SerializedMonth getMonth(int year, int month) {
+        if (year < LunarCalendar.MIN_YEAR || year > LunarCalendar.MAX_YEAR) {
+            throw new IllegalArgumentException("年份超出支持范围(" + LunarCalendar.MIN_YEAR + "-" + LunarCalendar.MAX_YEAR + ")：" + year);
+        }
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("月份超出范围(1-12)：" + month);
+        }
+        return monthCache.computeIfAbsent(year * 100 + month, key -> serialize(buildMonth(year, month)));
+    }
+
+    /**
+     * 组装月视图
+     */
+    public CalendarMonthResponse buildMonth(int year, int month) {
+        LocalDate first = LocalDate.of(year, month, 1);
+        int length = first.lengthOfMonth();
+        long startMinute = SolarTerms.toEpochMinute(first.atStartOfDay());
+
+        // 本月第一个节气
+        int term = SolarTerms.indexOf(startMinute);
+        if (SolarTerms.minuteOf(term) < startMinute) {
+            term++;
+        }
+
+        List<CalendarDayResponse> days = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            LocalDate date = first.plusDays(i);
+            long dayEnd = startMinute + (long) (i + 1) * MINUTES_PER_DAY;
+
+            String solarTerm = null;
+            String solarTermTime = null;
+            if (term < SolarTerms.size() && SolarTerms.minuteOf(term) < dayEnd) {
+                solarTerm = SolarTerms.nameOf(term);
+                solarTermTime = LocalDateTime.ofEpochSecond(SolarTerms.minuteOf(term) * 60, 0, SolarTerms.BEIJING)
+                        .format(TERM_TIME_FORMAT);
+                term++;
+            }
+
+            // 按当日最后一分钟取年柱、月柱，交节当日显示新的干支月
+            int pillarTerm = SolarTerms.indexOf(dayEnd - 1);
+            int yearJiaZi = SolarTerms.yearJiaZi(pillarTerm);
+            LunarDate lunar = LunarCalendar.fromEpochDay(date.toEpochDay());
+            days.add(CalendarDayResponse.builder()
+                    .date(date.toString())
+                    .weekday(date.getDayOfWeek().getValue())
+                    .lunarYear(lunar.getYear())
+                    .lunarMonth(lunar.monthName())
+                    .lunarDay(lunar.dayName())
+                    .solarTerm(solarTerm)
+                    .solarTermTime(solarTermTime)
+                    .yearGanZhi(GanZhiCycle.name(yearJiaZi))
+                    .monthGanZhi(GanZhiCycle.name(SolarTerms.monthJiaZi(pillarTerm)))
+                    .dayGanZhi(lunar.getDayGanZhi())
+                    .shengXiao(GanZhiCycle.SHENG_XIAO[yearJiaZi % 12])
+                    .build());
+        }
+
+        return CalendarMonthResponse.builder()
+                .year(year)
+                .month(month)
+                .days(days)
+                .build();
+    }
+
+    private SerializedMonth serialize(CalendarMonthResponse response) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.success(response));
+            return new SerializedMonth(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("万年历序列化失败", e);
+        }
+    }
+
+    /**
+     * 序列化好的月视图
+     */
+    @Data
+    @AllArgsConstructor
+    public static class SerializedMonth {
+
+        /**
+         * JSON字节
+         */
+        private byte[] body;
+
+        /**
+         * 强ETag（含引号），由内容摘要生成
+         */
+        private String eTag;
+    }
+}
@@ -2,9 +2,28 @@ package com.fortune.application.service;
 
 import com.fortune.application.command.CalculateFortuneCommand;
 import com.fortune.application.command.RecommendNameCommand;
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.Gazetteer;
+import com.fortune.domain.fortune.calendar.LunarCalendar;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.calendar.TrueSolarTime;
+import com.fortune.domain.fortune.service.BaZiEngine;
+import com.fortune.domain.fortune.service.BaZiReverseIndex;
+import com.fortune.domain.fortune.service.DailyFortune;
+import com.fortune.domain.fortune.service.DaYunTimeline;
+import com.fortune.domain.fortune.service.HeHun;
+import com.fortune.domain.fortune.service.ShenSha;
+import com.fortune.domain.fortune.service.WuXingAnalyzer;
+import com.fortune.domain.fortune.service.ZeRi;
 import com.fortune.domain.fortune.valueobject.BirthInfo;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.infrastructure.cache.LruCache;
+import com.fortune.infrastructure.chart.PrecomputedChartStore;
 import com.fortune.infrastructure.external.DeepSeekService;
-import com.fortune.infrastructure.utils.FortuneUtils;
+import com.fortune.interfaces.dto.response.AuspiciousDayResponse;
+import com.fortune.interfaces.dto.response.BirthCandidateResponse;
+import com.fortune.interfaces.dto.response.CompatibilityResponse;
+import com.fortune.interfaces.dto.response.DaYunResponse;
 import com.fortune.interfaces.dto.response.FortuneCalculateResponse;
 import com.fortune.interfaces.dto.response.NameRecommendationResponse;
 import lombok.RequiredArgsConstructor;
@@ -12,9 +31,13 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 命理应用服务
@@ -28,6 +51,27 @@ public class FortuneApplicationService {
     
     private final DeepSeekService deepSeekService;
     
+    private final PrecomputedChartStore chartStore;
+    
+    /**
+     * 大运流年只由出生时刻和性别决定，按排盘键缓存
+     */
+    private final LruCache<String, DaYunResponse> daYunCache = new LruCache<>(DA_YUN_CACHE_SIZE);
+    
+    private static final int DA_YUN_CACHE_SIZE = 4096;
+    
+    /**
+     * 当日运势表，日期变化时整体替换
+     */
+    private volatile DailyFortune dailyFortune;
+    
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    /**
+     * 择日一次最多扫描的天数（约五年）
+     */
+    private static final int MAX_ZE_RI_DAYS = 1830;
+    
     /**
      * 计算命理信息
      */
@@ -39,31 +83,15 @@ public class FortuneApplicationService {
             LocalDate birthDate = LocalDate.parse(command.getBirthDate());
             BirthInfo birthInfo = BirthInfo.of(birthDate, command.getBirthTime(), command.getUserName());
             
-            // 计算农历
-            String lunar = FortuneUtils.solarToLunar(birthDate);
-            
-            // 计算天干地支
-            String ganZhi = FortuneUtils.calculateGanZhi(birthDate, command.getBirthTime());
-            
-            // 分析五行
-            Map<String, Object> wuXingAnalysis = FortuneUtils.analyzeWuXing(ganZhi);
-            String wuXing = (String) wuXingAnalysis.get("wuXing");
-            String wuXingLack = (String) wuXingAnalysis.get("wuXingLack");
-            
-            // 获取生肖
-            String shengXiao = FortuneUtils.getShengXiao(birthDate.getYear());
+            // 排盘：农历、天干地支、五行、生肖
+            FortuneCalculateResponse response = calculateChart(birthInfo.getBirthDate(), birthInfo.getBirthTime());
             
             // 调用AI分析
-            String aiAnalysis = deepSeekService.generateFortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao);
+            String aiAnalysis = deepSeekService.generateFortuneAnalysis(
+                response.getGanZhi(), response.getWuXing(), response.getWuXingLack(), response.getShengXiao(),
+                response.getWuXingAnalysis());
             
-            // 构建响应
-            FortuneCalculateResponse response = new FortuneCalculateResponse();
             response.setId(System.currentTimeMillis()); // 临时ID，实际应该保存到数据库
-            response.setLunar(lunar);
-            response.setGanZhi(ganZhi);
-            response.setWuXing(wuXing);
-            response.setWuXingLack(wuXingLack);
-            response.setShengXiao(shengXiao);
             response.setAiAnalysis(aiAnalysis);
             response.setCreateTime(LocalDateTime.now());
             return response;
@@ -74,6 +102,286 @@ public class FortuneApplicationService {
         }
     }
     
+    /**
+     * 排盘（确定性部分，不调用AI、不访问数据库）
+     * 
+     * 优先读取预计算排盘数据文件，文件不可用或日期不在覆盖范围内时实时排盘
+     * 
+     * @param birthDate 出生日期
+     * @param birthTime 出生时辰，如"午时"，无法识别时按子时处理
+     */
+    public FortuneCalculateResponse calculateChart(LocalDate birthDate, String birthTime) {
+        return calculateChart(birthDate, birthTime, null);
+    }
+    
+    /**
+     * 排盘，出生时间为钟点（"HH:mm"，北京时间）且出生地点可识别时，日柱、时柱按当地真太阳时排
+     * 
+     * 出生时间为时辰时视为已按当地时间确定，不做校正，仍优先读取预计算排盘数据文件
+     * 
+     * @param birthPlace 出生地点，可为空
+     */
+    public FortuneCalculateResponse calculateChart(LocalDate birthDate, String birthTime, String birthPlace) {
+        int clockMinute = BaZiEngine.clockMinuteOf(birthTime);
+        if (clockMinute >= 0) {
+            long birthMinute = SolarTerms.toEpochMinute(birthDate.atStartOfDay()) + clockMinute;
+            double longitude = Gazetteer.longitudeOf(birthPlace);
+            if (Double.isNaN(longitude)) {
+                return buildChart(birthDate, BaZiEngine.calculate(birthMinute));
+            }
+            
+            int correction = TrueSolarTime.correctionMinutes(longitude, birthDate);
+            FortuneCalculateResponse response = buildChart(birthDate, BaZiEngine.calculate(birthMinute, correction));
+            response.setTrueSolarTime(birthDate.atStartOfDay()
+                    .plusMinutes(clockMinute + correction).format(MINUTE_FORMAT));
+            return response;
+        }
+        
+        int hourBranch = BaZiEngine.hourBranchOf(birthTime);
+        if (hourBranch < 0) {
+            hourBranch = 0;
+        }
+        
+        int record = chartStore.find(birthDate, hourBranch);
+        if (record >= 0) {
+            GanZhi ganZhi = chartStore.ganZhi(record);
+            FortuneCalculateResponse response = new FortuneCalculateResponse();
+            response.setLunar(chartStore.lunarDate(record).toChineseString());
+            response.setGanZhi(ganZhi.format());
+            response.setGanZhiCode(ganZhi.code());
+            response.setWuXing(BaZiEngine.formatWuXing(chartStore.wuXingCounts(record)));
+            response.setWuXingLack(BaZiEngine.formatLack(chartStore.lackMask(record)));
+            response.setWuXingAnalysis(WuXingAnalyzer.analyze(ganZhi));
+            response.setShenSha(ShenSha.names(ShenSha.evaluate(ganZhi)));
+            response.setShengXiao(GanZhiCycle.SHENG_XIAO[chartStore.shengXiao(record)]);
+            return response;
+        }
+        
+        return buildChart(birthDate, BaZiEngine.calculate(birthDate, hourBranch));
+    }
+    
+    /**
+     * 由实时排出的八字组装排盘结果
+     */
+    private FortuneCalculateResponse buildChart(LocalDate birthDate, GanZhi ganZhi) {
+        int wuXingCounts = BaZiEngine.countWuXing(ganZhi);
+        
+        FortuneCalculateResponse response = new FortuneCalculateResponse();
+        response.setLunar(LunarCalendar.fromSolar(birthDate).toChineseString());
+        response.setGanZhi(ganZhi.format());
+        response.setGanZhiCode(ganZhi.code());
+        response.setWuXing(BaZiEngine.formatWuXing(wuXingCounts));
+        response.setWuXingLack(BaZiEngine.formatLack(BaZiEngine.lackMask(wuXingCounts)));
+        response.setWuXingAnalysis(WuXingAnalyzer.analyze(ganZhi));
+        response.setShenSha(ShenSha.names(ShenSha.evaluate(ganZhi)));
+        response.setShengXiao(BaZiEngine.shengXiao(ganZhi));
+        return response;
+    }
+    
+    /**
+     * 排大运流年
+     * 
+     * @param from  起始步数（0起）
+     * @param count 返回步数
+     */
+    public DaYunResponse calculateDaYun(Long recordId, String ganZhi, BirthInfo birthInfo, int from, int count) {
+        String chartKey = birthInfo.getBirthDate() + "|" + birthInfo.getBirthTime() + "|"
+                          + birthInfo.getGender().trim().toLowerCase() + "|" + from + "|" + count;
+        DaYunResponse cached = daYunCache.computeIfAbsent(chartKey, key -> {
+            DaYunTimeline timeline = DaYunTimeline.of(birthInfo);
+            return DaYunResponse.builder()
+                    .direction(timeline.isForward() ? "顺行" : "逆行")
+                    .startAge(timeline.getStartAgeYears() + "岁" + timeline.getStartAgeMonths() + "个月")
+                    .startDate(timeline.getStartDate())
+                    .daYun(timeline.slice(from, count))
+                    .build();
+        });
+        
+        return DaYunResponse.builder()
+                .recordId(recordId)
+                .ganZhi(ganZhi)
+                .direction(cached.getDirection())
+                .startAge(cached.getStartAge())
+                .startDate(cached.getStartDate())
+                .daYun(cached.getDaYun())
+                .build();
+    }
+    
+    /**
+     * 八字反查：由四柱求1900-2100年间可能的出生时段
+     * 
+     * @param hourPillar 时柱，可为空（返回整日时段）
+     * @throws IllegalArgumentException 柱名无法识别
+     */
+    public List<BirthCandidateResponse> reverseLookup(String yearPillar, String monthPillar, String dayPillar,
+                                                      String hourPillar) {
+        boolean hourKnown = hourPillar != null && !hourPillar.trim().isEmpty();
+        int hour = hourKnown ? GanZhiCycle.indexOf(hourPillar.trim()) : -1;
+        if (hourKnown && hour < 0) {
+            throw new IllegalArgumentException("时柱无法识别：" + hourPillar);
+        }
+        List<long[]> ranges = BaZiReverseIndex.lookup(pillarIndex(yearPillar, "年柱"), pillarIndex(monthPillar, "月柱"),
+                                                      pillarIndex(dayPillar, "日柱"), hour);
+        
+        List<BirthCandidateResponse> result = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            LocalDateTime start = LocalDateTime.ofEpochSecond(range[0] * 60, 0, SolarTerms.BEIJING);
+            LocalDateTime end = LocalDateTime.ofEpochSecond(range[1] * 60, 0, SolarTerms.BEIJING);
+            // 子时跨日，按时段中点所在民用日给出日期，与"日期+时辰"排盘一致
+            LocalDateTime middle = LocalDateTime.ofEpochSecond((range[0] + range[1]) / 2 * 60, 0, SolarTerms.BEIJING);
+            result.add(BirthCandidateResponse.builder()
+                    .birthDate(middle.toLocalDate().toString())
+                    .birthTime(hourKnown ? GanZhiCycle.DI_ZHI[hour % 12] + "时" : null)
+                    .start(start.format(MINUTE_FORMAT))
+                    .end(end.format(MINUTE_FORMAT))
+                    .build());
+        }
+        return result;
+    }
+    
+    private static int pillarIndex(String pillar, String name) {
+        int index = GanZhiCycle.indexOf(pillar == null ? null : pillar.trim());
+        if (index < 0) {
+            throw new IllegalArgumentException(name + "无法识别：" + pillar);
+        }
+        return index;
+    }
+    
+    /**
+     * 合婚评分
+     */
+    public CompatibilityResponse calculateCompatibility(FortuneCalculateResponse record, FortuneCalculateResponse other) {
+        GanZhi ganZhi = chartGanZhi(record);
+        GanZhi otherGanZhi = chartGanZhi(other);
+        return compatibility(record, ganZhi, WuXingAnalyzer.strength(ganZhi),
+                             other, otherGanZhi, WuXingAnalyzer.strength(otherGanZhi));
+    }
+    
+    /**
+     * 一个命盘与多个命盘逐一合婚，返回得分最高的 top 个（按得分降序）
+     * 
+     * 先只算得分，用大小为 top 的最小堆筛选，只为入选的命盘组装逐柱关系等明细
+     */
+    public List<CompatibilityResponse> rankCompatibility(FortuneCalculateResponse record,
+                                                         List<FortuneCalculateResponse> candidates, int top) {
+        GanZhi ganZhi = chartGanZhi(record);
+        int[] strength = WuXingAnalyzer.strength(ganZhi);
+        
+        int size = candidates.size();
+        GanZhi[] candidateGanZhi = new GanZhi[size];
+        int[][] candidateStrength = new int[size][];
+        // 堆元素为 得分<<32 | (MAX - 下标)，同分时下标小的优先保留
+        PriorityQueue<Long> heap = new PriorityQueue<>(top + 1);
+        for (int i = 0; i < size; i++) {
+            candidateGanZhi[i] = chartGanZhi(candidates.get(i));
+            candidateStrength[i] = WuXingAnalyzer.strength(candidateGanZhi[i]);
+            int score = HeHun.score(HeHun.relationScore(ganZhi, candidateGanZhi[i]),
+                                    HeHun.complementScore(strength, candidateStrength[i]));
+            heap.add(((long) score << 32) | (Integer.MAX_VALUE - i));
+            if (heap.size() > top) {
+                heap.poll();
+            }
+        }
+        
+        List<CompatibilityResponse> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int i = Integer.MAX_VALUE - (int) (heap.poll() & 0xffffffffL);
+            result.add(compatibility(record, ganZhi, strength,
+                                     candidates.get(i), candidateGanZhi[i], candidateStrength[i]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+    
+    private CompatibilityResponse compatibility(FortuneCalculateResponse record, GanZhi ganZhi, int[] strength,
+                                                FortuneCalculateResponse other, GanZhi otherGanZhi, int[] otherStrength) {
+        int relationScore = HeHun.relationScore(ganZhi, otherGanZhi);
+        int complementScore = HeHun.complementScore(strength, otherStrength);
+        int score = HeHun.score(relationScore, complementScore);
+        return CompatibilityResponse.builder()
+                .recordId(record.getId())
+                .userName(record.getUserName())
+                .ganZhi(ganZhi.format())
+                .otherRecordId(other.getId())
+                .otherUserName(other.getUserName())
+                .otherGanZhi(otherGanZhi.format())
+                .score(score)
+                .level(HeHun.level(score))
+                .relationScore(relationScore)
+                .complementScore(complementScore)
+                .relations(HeHun.describeRelations(ganZhi, otherGanZhi))
+                .build();
+    }
+    
+    /**
+     * 异步生成记录的AI命理分析（带十神信息），在DeepSeek线程池中执行
+     */
+    public CompletableFuture<String> generateFortuneAnalysisAsync(FortuneCalculateResponse record) {
+        GanZhi ganZhi = chartGanZhi(record);
+        int wuXingCounts = BaZiEngine.countWuXing(ganZhi);
+        return deepSeekService.generateFortuneAnalysisAsync(ganZhi.format(), BaZiEngine.formatWuXing(wuXingCounts),
+                BaZiEngine.formatLack(BaZiEngine.lackMask(wuXingCounts)), BaZiEngine.shengXiao(ganZhi),
+                WuXingAnalyzer.analyze(ganZhi));
+    }
+    
+    /**
+     * 流式生成记录的AI命理分析（带十神信息），逐段回调增量文本，返回完整内容
+     */
+    public String streamFortuneAnalysis(FortuneCalculateResponse record, Consumer<String> onDelta) {
+        GanZhi ganZhi = chartGanZhi(record);
+        int wuXingCounts = BaZiEngine.countWuXing(ganZhi);
+        return deepSeekService.streamFortuneAnalysis(ganZhi.format(), BaZiEngine.formatWuXing(wuXingCounts),
+                BaZiEngine.formatLack(BaZiEngine.lackMask(wuXingCounts)), BaZiEngine.shengXiao(ganZhi),
+                WuXingAnalyzer.analyze(ganZhi), onDelta);
+    }
+    
+    /**
+     * 记录中保存的八字：优先取八字编码，其次解析八字字符串，都没有时按出生日期和时辰重新排盘
+     */
+    private GanZhi chartGanZhi(FortuneCalculateResponse record) {
+        if (record.getGanZhiCode() != null && record.getGanZhiCode() != GanZhi.UNKNOWN_CODE) {
+            return GanZhi.ofCode(record.getGanZhiCode());
+        }
+        GanZhi ganZhi = GanZhi.parse(record.getGanZhi());
+        if (ganZhi.isComplete()) {
+            return ganZhi;
+        }
+        return GanZhi.parse(calculateChart(LocalDate.parse(record.getBirthDate()), record.getBirthTime()).getGanZhi());
+    }
+    
+    /**
+     * 择日：在 [from, to] 中为某种用途选出与本人八字最相宜的 top 天（按得分降序）
+     * 
+     * @throws IllegalArgumentException 用途无法识别、区间为空或过长、超出1900-2100范围
+     */
+    public List<AuspiciousDayResponse> selectDays(FortuneCalculateResponse record, String purpose,
+                                                  LocalDate from, LocalDate to, int top) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_ZE_RI_DAYS) {
+            throw new IllegalArgumentException("择日区间不能超过" + MAX_ZE_RI_DAYS + "天");
+        }
+        if (from.getYear() < LunarCalendar.MIN_YEAR || to.getYear() > LunarCalendar.MAX_YEAR) {
+            throw new IllegalArgumentException("日期超出支持范围(" + LunarCalendar.MIN_YEAR + "-" + LunarCalendar.MAX_YEAR + ")");
+        }
+        
+        ZeRi zeRi = ZeRi.of(chartGanZhi(record), purpose);
+        List<LocalDate> days = zeRi.select(from, to, top);
+        List<AuspiciousDayResponse> result = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            result.add(AuspiciousDayResponse.builder()
+                    .date(day.toString())
+                    .lunar(LunarCalendar.fromSolar(day).toChineseString())
+                    .dayGanZhi(GanZhi.dayPillarOf(day))
+                    .officer(zeRi.officerOf(day))
+                    .score(zeRi.score(day))
+                    .reasons(zeRi.reasonsOf(day))
+                    .build());
+        }
+        return result;
+    }
+    
     /**
      * AI推荐姓名
      */
@@ -94,17 +402,30 @@ public class FortuneApplicationService {
     }
     
     /**
-     * 获取今日运势
+     * 获取今日运势（不区分个人）
      */
     public String getTodayFortune() {
-        System.out.println("获取今日运势");
-        
-        try {
-            return deepSeekService.getTodayFortune();
-        } catch (Exception e) {
-            System.err.println("获取今日运势失败: " + e.getMessage());
-            throw new RuntimeException("获取今日运势失败：" + e.getMessage());
+        return todayTable().general();
+    }
+    
+    /**
+     * 获取个人今日运势：按当日日柱对照记录中的日主、日支和五行缺失，本地查表生成
+     */
+    public String getTodayFortune(FortuneCalculateResponse record) {
+        return todayTable().reading(chartGanZhi(record));
+    }
+    
+    /**
+     * 当日运势表，跨天后首次访问时重建；并发重建结果相同，不加锁
+     */
+    private DailyFortune todayTable() {
+        LocalDate today = LocalDate.now(SolarTerms.BEIJING);
+        DailyFortune table = dailyFortune;
+        if (table == null || !table.getDate().equals(today)) {
+            table = DailyFortune.of(today);
+            dailyFortune = table;
         }
+        return table;
     }
     
     /**
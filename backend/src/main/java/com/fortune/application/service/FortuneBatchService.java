@@ -0,0 +1,191 @@
+package com.fortune.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortune.interfaces.dto.response.FortuneCalculateResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量排盘服务
+ *
+ * 输入为CSV（每行"编号,出生日期,出生时辰"，编号可省略；首行含 birthDate 时视为表头跳过），
+ * 输出为NDJSON，每行一个结果，顺序与输入一致。只计算农历、八字、五行、神煞等确定性部分，
+ * 不调用AI、不写数据库。
+ *
+ * 按块读取输入，每块在 ForkJoinPool 上分治计算并直接序列化为字节；读取和计算下一块的同时写出上一块，
+ * 内存中最多同时存在两块，十万行的批次内存占用也保持平稳。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FortuneBatchService {
+
+    /**
+     * 每块行数
+     */
+    private static final int CHUNK_SIZE = 2048;
+
+    /**
+     * 分治到该行数以下直接计算
+     */
+    private static final int SPLIT_THRESHOLD = 128;
+
+    private static final byte NEWLINE = '\n';
+
+    private final FortuneApplicationService fortuneApplicationService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 批量排盘
+     *
+     * @return 处理的行数
+     */
+    public int calculateBatch(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        ForkJoinTask<byte[][]> pending = null;
+
+        String[] chunk = new String[CHUNK_SIZE];
+        int[] lineNumbers = new int[CHUNK_SIZE];
+        int size = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || (lineNumber == 1 && line.contains("birthDate"))) {
+                continue;
+            }
+            chunk[size] = line;
+            lineNumbers[size++] = lineNumber;
+            if (size == CHUNK_SIZE) {
+                ForkJoinTask<byte[][]> submitted = submit(chunk, lineNumbers, size);
+                write(pending, out);
+                pending = submitted;
+                chunk = new String[CHUNK_SIZE];
+                lineNumbers = new int[CHUNK_SIZE];
+                size = 0;
+            }
+        }
+        ForkJoinTask<byte[][]> last = size > 0 ? submit(chunk, lineNumbers, size) : null;
+        write(pending, out);
+        write(last, out);
+        out.flush();
+
+        log.info("批量排盘完成，共{}行", lineNumber);
+        return lineNumber;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private ForkJoinTask<byte[][]> submit(String[] lines, int[] lineNumbers, int size) {
+        byte[][] results = new byte[size][];
+        ChartTask task = new ChartTask(lines, lineNumbers, results, 0, size);
+        return pool.submit(ForkJoinTask.adapt(() -> {
+            task.invoke();
+            return results;
+        }));
+    }
+
+    private void write(ForkJoinTask<byte[][]> task, OutputStream out) throws IOException {
+        if (task == null) {
+            return;
+        }
+        for (byte[] row : task.join()) {
+            out.write(row);
+            out.write(NEWLINE);
+        }
+    }
+
+    /**
+     * 计算一行，出错时输出包含错误信息的结果行，不中断整个批次
+     */
+    private byte[] calculateLine(String line, int lineNumber) {
+        Map<String, Object> row = new LinkedHashMap<>(16);
+        row.put("line", lineNumber);
+        try {
+            String[] columns = line.split(",", -1);
+            int offset = columns.length >= 3 ? 1 : 0;
+            if (columns.length < 2) {
+                throw new IllegalArgumentException("列数不足，应为：编号,出生日期,出生时辰");
+            }
+            String birthDate = columns[offset].trim();
+            String birthTime = columns[offset + 1].trim();
+            if (offset == 1) {
+                row.put("id", columns[0].trim());
+            }
+            row.put("birthDate", birthDate);
+            row.put("birthTime", birthTime);
+
+            FortuneCalculateResponse chart = fortuneApplicationService.calculateChart(LocalDate.parse(birthDate), birthTime);
+            row.put("lunar", chart.getLunar());
+            row.put("ganZhi", chart.getGanZhi());
+            row.put("wuXing", chart.getWuXing());
+            row.put("wuXingLack", chart.getWuXingLack());
+            row.put("shengXiao", chart.getShengXiao());
+            row.put("shenSha", chart.getShenSha());
+        } catch (Exception e) {
+            row.put("error", e.getMessage());
+        }
+        try {
+            return objectMapper.writeValueAsBytes(row);
+        } catch (IOException e) {
+            return ("{\"line\":" + lineNumber + ",\"error\":\"序列化失败\"}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 分治计算一块中的 [from, to) 行
+     */
+    private class ChartTask extends RecursiveAction {
+
+        private final String[] lines;
+        private final int[] lineNumbers;
+        private final byte[][] results;
+        private final int from;
+        private final int to;
+
+        ChartTask(String[] lines, int[] lineNumbers, byte[][] results, int from, int to) {
+            this.lines = lines;
+            this.lineNumbers = lineNumbers;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = calculateLine(lines[i], lineNumbers[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChartTask(lines, lineNumbers, results, from, mid),
+                      new ChartTask(lines, lineNumbers, results, mid, to));
+        }
+    }
+}
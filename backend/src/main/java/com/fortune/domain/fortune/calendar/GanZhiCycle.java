@@ -0,0 +1,105 @@
+package com.fortune.domain.fortune.calendar;
+
+/**
+ * 天干地支六十甲子常量表
+ *
+ * 所有名称均为常量，按序号直接取用，计算过程中不产生新的字符串
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class GanZhiCycle {
+
+    /**
+     * 天干
+     */
+    public static final String[] TIAN_GAN = {
+        "甲", "乙", "丙", "丁", "戊", "己", "庚", "辛", "壬", "癸"
+    };
+
+    /**
+     * 地支
+     */
+    public static final String[] DI_ZHI = {
+        "子", "丑", "寅", "卯", "辰", "巳", "午", "未", "申", "酉", "戌", "亥"
+    };
+
+    /**
+     * 生肖（与地支一一对应）
+     */
+    public static final String[] SHENG_XIAO = {
+        "鼠", "牛", "虎", "兔", "龙", "蛇", "马", "羊", "猴", "鸡", "狗", "猪"
+    };
+
+    /**
+     * 六十甲子名称，下标即甲子序号（甲子=0，癸亥=59）
+     */
+    private static final String[] JIA_ZI = new String[60];
+    static {
+        for (int i = 0; i < 60; i++) {
+            JIA_ZI[i] = TIAN_GAN[i % 10] + DI_ZHI[i % 12];
+        }
+    }
+
+    /**
+     * 1970-01-01 的儒略日数
+     */
+    private static final long EPOCH_JULIAN_DAY = 2440588L;
+
+    /**
+     * 儒略日数加49对60取模即为日柱甲子序号（JDN 2451545 即2000-01-01为戊午日）
+     */
+    private static final long JULIAN_DAY_JIA_ZI_OFFSET = 49L;
+
+    private GanZhiCycle() {
+    }
+
+    /**
+     * 获取甲子名称
+     */
+    public static String name(int jiaZi) {
+        return JIA_ZI[jiaZi];
+    }
+
+    /**
+     * 由柱名查甲子序号，无法识别返回-1
+     */
+    public static int indexOf(String pillar) {
+        if (pillar != null) {
+            for (int i = 0; i < 60; i++) {
+                if (JIA_ZI[i].equals(pillar)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 公历（或农历）年份对应的甲子序号，公元4年为甲子年
+     */
+    public static int yearJiaZi(int year) {
+        return Math.floorMod(year - 4, 60);
+    }
+
+    /**
+     * 公历日期的儒略日数
+     */
+    public static long julianDayNumber(long epochDay) {
+        return epochDay + EPOCH_JULIAN_DAY;
+    }
+
+    /**
+     * 日柱甲子序号，由儒略日数直接取模得到，常数时间
+     */
+    public static int dayJiaZi(long epochDay) {
+        return (int) Math.floorMod(julianDayNumber(epochDay) + JULIAN_DAY_JIA_ZI_OFFSET, 60L);
+    }
+
+    /**
+     * 年份对应的生肖
+     */
+    public static String shengXiao(int year) {
+        return SHENG_XIAO[Math.floorMod(year - 4, 12)];
+    }
+}
@@ -0,0 +1,382 @@
+package com.fortune.domain.fortune.calendar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 离线地名经度索引
+ *
+ * 地名及经度存放在 calendar/cities.txt（省级行政区、地级行政区及常见县级市、市辖区），
+ * 类加载时把全称和简称编成一棵前缀树，再按层序压平成几个基本类型数组：同一节点的子节点连续存放、按字符排序，
+ * 查找子节点为一次二分查找。整棵树只有几千个节点，常驻内存不到百KB。
+ *
+ * 出生地点常写成"广东省广州市天河区"这样逐级包含的形式，解析时从左到右逐段取最长命中，结果为最后一个有效命中，
+ * 即最具体的那一级。同一地名可能对应多行（如"朝阳"既是辽宁朝阳市也是北京朝阳区），前面已命中的地名确定了所在省，
+ * 重名时取该省的一行；后面的命中与前面的省都不相符时忽略，退回前面的命中（"吉林省长春市朝阳区"取长春）。
+ * 一次解析只做若干次数组读取，为微秒级。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class Gazetteer {
+
+    private static final String RESOURCE = "/calendar/cities.txt";
+
+    /**
+     * 生成简称时去掉的行政区划后缀，长的在前
+     */
+    private static final String[] SUFFIXES = {
+            "特别行政区", "自治区", "自治州", "自治县", "地区", "林区", "新区", "省", "市", "县", "区", "盟"
+    };
+
+    /**
+     * 自治区划名称中的民族名，生成简称时一并去掉（如"大理白族自治州"简称"大理"），长的在前
+     */
+    private static final String[] ETHNIC_NAMES = {
+            "柯尔克孜", "维吾尔", "哈萨克", "朝鲜族", "土家族", "布依族", "哈尼族", "景颇族", "傈僳族", "蒙古族",
+            "蒙古", "壮族", "回族", "苗族", "藏族", "羌族", "彝族", "侗族", "傣族", "白族"
+    };
+
+    /**
+     * 简称最少字数
+     */
+    private static final int MIN_SHORT_NAME_LENGTH = 2;
+
+    /**
+     * 省级行政区数量上限（所在省以 long 位集合记录）
+     */
+    private static final int MAX_PROVINCES = 64;
+
+    /**
+     * 节点字符，下标为节点序号，0为根
+     */
+    private static final char[] LABEL;
+
+    /**
+     * 节点第一个子节点的序号
+     */
+    private static final int[] FIRST_CHILD;
+
+    /**
+     * 节点子节点个数
+     */
+    private static final int[] CHILD_COUNT;
+
+    /**
+     * 节点对应地名的候选行在 NAME_ROWS 中的起始位置，候选行个数为 NAME_ROWS_START[node + 1] - NAME_ROWS_START[node]
+     */
+    private static final int[] NAME_ROWS_START;
+
+    /**
+     * 各地名的候选行，按优先级排列：写明的地名后出现的在前，生成的简称排在最后
+     */
+    private static final int[] NAME_ROWS;
+
+    /**
+     * 行的经度（百分之一度）
+     */
+    private static final int[] ROW_LONGITUDE;
+
+    /**
+     * 行所在省级行政区的序号
+     */
+    private static final int[] ROW_PROVINCE;
+
+    /**
+     * 行是否为省级行政区本身
+     */
+    private static final boolean[] ROW_IS_PROVINCE;
+
+    static {
+        Table table = load();
+        Node root = new Node();
+        for (Map.Entry<String, List<Integer>> entry : table.names.entrySet()) {
+            Node node = root;
+            String name = entry.getKey();
+            for (int i = 0; i < name.length(); i++) {
+                node = node.children.computeIfAbsent(name.charAt(i), c -> new Node());
+            }
+            node.rows = entry.getValue();
+        }
+
+        // 层序压平，使每个节点的子节点序号连续
+        List<Node> order = new ArrayList<>();
+        List<Character> labels = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        order.add(root);
+        labels.add('\0');
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.firstChild = order.size();
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                order.add(child.getValue());
+                labels.add(child.getKey());
+                queue.add(child.getValue());
+            }
+        }
+
+        int size = order.size();
+        LABEL = new char[size];
+        FIRST_CHILD = new int[size];
+        CHILD_COUNT = new int[size];
+        NAME_ROWS_START = new int[size + 1];
+        List<Integer> nameRows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Node node = order.get(i);
+            LABEL[i] = labels.get(i);
+            FIRST_CHILD[i] = node.firstChild;
+            CHILD_COUNT[i] = node.children.size();
+            NAME_ROWS_START[i] = nameRows.size();
+            nameRows.addAll(node.rows);
+        }
+        NAME_ROWS_START[size] = nameRows.size();
+        NAME_ROWS = nameRows.stream().mapToInt(Integer::intValue).toArray();
+        ROW_LONGITUDE = table.longitudes.stream().mapToInt(Integer::intValue).toArray();
+        ROW_PROVINCE = table.provinces.stream().mapToInt(Integer::intValue).toArray();
+        ROW_IS_PROVINCE = new boolean[ROW_LONGITUDE.length];
+        for (int row : table.provinceRows.values()) {
+            ROW_IS_PROVINCE[row] = true;
+        }
+    }
+
+    private Gazetteer() {
+    }
+
+    /**
+     * 解析地点的经度（东经，度）
+     *
+     * @param place 出生地点，如"广州"、"广东省广州市天河区"、"辽宁朝阳"
+     * @return 经度，无法识别时返回 NaN
+     */
+    public static double longitudeOf(String place) {
+        if (place == null) {
+            return Double.NaN;
+        }
+        int resolved = -1;
+        long provinces = 0;
+        int[] matched = new int[place.length()];
+        int start = 0;
+        while (start < place.length()) {
+            // 从 start 起逐字下行，记录途经的地名结尾节点（由短到长）
+            int count = 0;
+            int end = start;
+            int node = 0;
+            for (int i = start; i < place.length(); i++) {
+                node = child(node, place.charAt(i));
+                if (node < 0) {
+                    break;
+                }
+                if (NAME_ROWS_START[node + 1] > NAME_ROWS_START[node]) {
+                    matched[count++] = node;
+                    end = i + 1;
+                }
+            }
+            if (count == 0) {
+                start++;
+                continue;
+            }
+
+            int row = choose(matched, count, provinces);
+            // 与前面的省不符的命中忽略；已在该省内时，省名本身不覆盖更具体的命中
+            if (row >= 0 && !(ROW_IS_PROVINCE[row] && (provinces & (1L << ROW_PROVINCE[row])) != 0 && resolved >= 0)) {
+                resolved = row;
+                provinces |= 1L << ROW_PROVINCE[row];
+            }
+            start = end;
+        }
+        return resolved >= 0 ? ROW_LONGITUDE[resolved] / 100.0 : Double.NaN;
+    }
+
+    /**
+     * 在同一起点的各命中中选行：还没有确定所在省时取最长地名的首选行，
+     * 否则按地名由长到短、候选行按优先级找第一个位于已命中省内的行，找不到返回-1
+     */
+    private static int choose(int[] matched, int count, long provinces) {
+        if (provinces == 0) {
+            return NAME_ROWS[NAME_ROWS_START[matched[count - 1]]];
+        }
+        for (int k = count - 1; k >= 0; k--) {
+            int node = matched[k];
+            for (int j = NAME_ROWS_START[node]; j < NAME_ROWS_START[node + 1]; j++) {
+                int row = NAME_ROWS[j];
+                if ((provinces & (1L << ROW_PROVINCE[row])) != 0) {
+                    return row;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int child(int node, char c) {
+        int low = FIRST_CHILD[node];
+        int high = low + CHILD_COUNT[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (LABEL[mid] < c) {
+                low = mid + 1;
+            } else if (LABEL[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 读取地名表
+     *
+     * 不在任何一节中的行为省级行政区；"[全称]"开始该省级行政区的一节。
+     * 同名地名的候选行：全称和写明的简称后出现的在前；未写简称的行按后缀生成简称，
+     * 生成的简称排在写明的地名之后（如"海南藏族自治州"生成的"海南"排在"海南省"之后）
+     */
+    private static Table load() {
+        Table table = new Table();
+        Map<String, List<Integer>> explicit = new HashMap<>(2048);
+        Map<String, List<Integer>> generated = new HashMap<>();
+        try (InputStream in = Gazetteer.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("地名经度资源不存在：" + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            int section = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("[") && line.endsWith("]")) {
+                    Integer provinceRow = table.provinceRows.get(line.substring(1, line.length() - 1));
+                    if (provinceRow == null) {
+                        throw new IllegalStateException("地名经度分节不是已列出的省级行政区：" + line);
+                    }
+                    section = table.provinces.get(provinceRow);
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length < 2) {
+                    throw new IllegalStateException("地名经度格式错误：" + line);
+                }
+                int longitude = (int) Math.round(Double.parseDouble(parts[1]) * 100);
+                if (longitude <= 0) {
+                    throw new IllegalStateException("地名经度超出范围：" + line);
+                }
+
+                int row = table.longitudes.size();
+                table.longitudes.add(longitude);
+                if (section < 0) {
+                    if (table.provinceRows.size() == MAX_PROVINCES) {
+                        throw new IllegalStateException("省级行政区超过" + MAX_PROVINCES + "个：" + line);
+                    }
+                    table.provinces.add(table.provinceRows.size());
+                    table.provinceRows.put(parts[0], row);
+                } else {
+                    table.provinces.add(section);
+                }
+
+                explicit.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(row);
+                for (int i = 2; i < parts.length; i++) {
+                    explicit.computeIfAbsent(parts[i], k -> new ArrayList<>()).add(row);
+                }
+                if (parts.length == 2) {
+                    String shortName = shortNameOf(parts[0]);
+                    if (shortName != null) {
+                        generated.computeIfAbsent(shortName, k -> new ArrayList<>()).add(row);
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("加载地名经度失败", e);
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : explicit.entrySet()) {
+            List<Integer> rows = new ArrayList<>(entry.getValue());
+            Collections.reverse(rows);
+            table.names.put(entry.getKey(), rows);
+        }
+        for (Map.Entry<String, List<Integer>> entry : generated.entrySet()) {
+            table.names.merge(entry.getKey(), entry.getValue(), (rows, more) -> {
+                LinkedHashSet<Integer> merged = new LinkedHashSet<>(rows);
+                merged.addAll(more);
+                return new ArrayList<>(merged);
+            });
+        }
+        return table;
+    }
+
+    /**
+     * 按后缀生成简称：去掉行政区划后缀，自治区划再去掉末尾的民族名，不足两个字时返回null
+     */
+    static String shortNameOf(String fullName) {
+        String name = fullName;
+        for (String suffix : SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                name = name.substring(0, name.length() - suffix.length());
+                break;
+            }
+        }
+        boolean stripped = true;
+        while (stripped) {
+            stripped = false;
+            for (String ethnic : ETHNIC_NAMES) {
+                if (name.endsWith(ethnic) && name.length() - ethnic.length() >= MIN_SHORT_NAME_LENGTH) {
+                    name = name.substring(0, name.length() - ethnic.length());
+                    stripped = true;
+                    break;
+                }
+            }
+        }
+        return name.length() >= MIN_SHORT_NAME_LENGTH && !name.equals(fullName) ? name : null;
+    }
+
+    /**
+     * 读取得到的地名表
+     */
+    private static final class Table {
+
+        /**
+         * 地名 -> 候选行（按优先级）
+         */
+        private final Map<String, List<Integer>> names = new HashMap<>(2048);
+
+        /**
+         * 各行经度（百分之一度）
+         */
+        private final List<Integer> longitudes = new ArrayList<>();
+
+        /**
+         * 各行所在省级行政区的序号
+         */
+        private final List<Integer> provinces = new ArrayList<>();
+
+        /**
+         * 省级行政区全称 -> 行号
+         */
+        private final Map<String, Integer> provinceRows = new HashMap<>();
+    }
+
+    /**
+     * 构建期使用的前缀树节点
+     */
+    private static final class Node {
+
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+
+        private List<Integer> rows = Collections.emptyList();
+
+        private int firstChild;
+    }
+}
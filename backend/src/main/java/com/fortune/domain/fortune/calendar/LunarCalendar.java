@@ -0,0 +1,221 @@
+package com.fortune.domain.fortune.calendar;
+
+import com.fortune.domain.fortune.valueobject.LunarDate;
+
+import java.time.LocalDate;
+
+/**
+ * 农历历法引擎（查表实现，支持1900-2100年）
+ *
+ * 数据来源为通行的1900-2100年农历月份压缩表，每年一个int：
+ * bit0-3 闰月月份（0表示无闰月），bit4-15 依次为十二月到正月的大小月（1为30天），
+ * bit16 闰月大小。类加载时展开为按月排列的起始日数组，换算时按平均朔望月估算下标后
+ * 至多修正一两步，属于常数时间，除结果对象外不分配内存。
+ * 农历转公历时按每年正月的月下标直接定位到所在月，同样是常数时间。
+ * 通行表中2057年八月、九月的大小月有误（九月初一应为2057-09-28），此处已按朔日校正，
+ * 全表由 LunarCalendarTest 对照参考表逐月核对。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class LunarCalendar {
+
+    /**
+     * 支持的最早农历年
+     */
+    public static final int MIN_YEAR = 1900;
+
+    /**
+     * 支持的最晚农历年
+     */
+    public static final int MAX_YEAR = 2100;
+
+    private static final int[] LUNAR_INFO = {
+        0x04bd8, 0x04ae0, 0x0a570, 0x054d5, 0x0d260, 0x0d950, 0x16554, 0x056a0, 0x09ad0, 0x055d2, // 1900-1909
+        0x04ae0, 0x0a5b6, 0x0a4d0, 0x0d250, 0x1d255, 0x0b540, 0x0d6a0, 0x0ada2, 0x095b0, 0x14977, // 1910-1919
+        0x04970, 0x0a4b0, 0x0b4b5, 0x06a50, 0x06d40, 0x1ab54, 0x02b60, 0x09570, 0x052f2, 0x04970, // 1920-1929
+        0x06566, 0x0d4a0, 0x0ea50, 0x16a95, 0x05ad0, 0x02b60, 0x186e3, 0x092e0, 0x1c8d7, 0x0c950, // 1930-1939
+        0x0d4a0, 0x1d8a6, 0x0b550, 0x056a0, 0x1a5b4, 0x025d0, 0x092d0, 0x0d2b2, 0x0a950, 0x0b557, // 1940-1949
+        0x06ca0, 0x0b550, 0x15355, 0x04da0, 0x0a5b0, 0x14573, 0x052b0, 0x0a9a8, 0x0e950, 0x06aa0, // 1950-1959
+        0x0aea6, 0x0ab50, 0x04b60, 0x0aae4, 0x0a570, 0x05260, 0x0f263, 0x0d950, 0x05b57, 0x056a0, // 1960-1969
+        0x096d0, 0x04dd5, 0x04ad0, 0x0a4d0, 0x0d4d4, 0x0d250, 0x0d558, 0x0b540, 0x0b6a0, 0x195a6, // 1970-1979
+        0x095b0, 0x049b0, 0x0a974, 0x0a4b0, 0x0b27a, 0x06a50, 0x06d40, 0x0af46, 0x0ab60, 0x09570, // 1980-1989
+        0x04af5, 0x04970, 0x064b0, 0x074a3, 0x0ea50, 0x06b58, 0x05ac0, 0x0ab60, 0x096d5, 0x092e0, // 1990-1999
+        0x0c960, 0x0d954, 0x0d4a0, 0x0da50, 0x07552, 0x056a0, 0x0abb7, 0x025d0, 0x092d0, 0x0cab5, // 2000-2009
+        0x0a950, 0x0b4a0, 0x0baa4, 0x0ad50, 0x055d9, 0x04ba0, 0x0a5b0, 0x15176, 0x052b0, 0x0a930, // 2010-2019
+        0x07954, 0x06aa0, 0x0ad50, 0x05b52, 0x04b60, 0x0a6e6, 0x0a4e0, 0x0d260, 0x0ea65, 0x0d530, // 2020-2029
+        0x05aa0, 0x076a3, 0x096d0, 0x04afb, 0x04ad0, 0x0a4d0, 0x1d0b6, 0x0d250, 0x0d520, 0x0dd45, // 2030-2039
+        0x0b5a0, 0x056d0, 0x055b2, 0x049b0, 0x0a577, 0x0a4b0, 0x0aa50, 0x1b255, 0x06d20, 0x0ada0, // 2040-2049
+        0x14b63, 0x09370, 0x049f8, 0x04970, 0x064b0, 0x168a6, 0x0ea50, 0x06aa0, 0x1a6c4, 0x0aae0, // 2050-2059
+        0x092e0, 0x0d2e3, 0x0c960, 0x0d557, 0x0d4a0, 0x0da50, 0x05d55, 0x056a0, 0x0a6d0, 0x055d4, // 2060-2069
+        0x052d0, 0x0a9b8, 0x0a950, 0x0b4a0, 0x0b6a6, 0x0ad50, 0x055a0, 0x0aba4, 0x0a5b0, 0x052b0, // 2070-2079
+        0x0b273, 0x06930, 0x07337, 0x06aa0, 0x0ad50, 0x14b55, 0x04b60, 0x0a570, 0x054e4, 0x0d160, // 2080-2089
+        0x0e968, 0x0d520, 0x0daa0, 0x16aa6, 0x056d0, 0x04ae0, 0x0a9d4, 0x0a2d0, 0x0d150, 0x0f252, // 2090-2099
+        0x0d520                                                                                    // 2100
+    };
+
+    /**
+     * 1900-01-01为己亥年腊月初一（30天），补在表头使整个1900年公历日期都可换算
+     */
+    private static final int FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+
+    private static final int FIRST_NEW_YEAR_DAY = (int) LocalDate.of(1900, 1, 31).toEpochDay();
+
+    private static final double MEAN_SYNODIC_MONTH = 29.530588853;
+
+    /**
+     * 每个农历月的起始日（epoch day），末尾为哨兵
+     */
+    private static final int[] MONTH_START;
+
+    /**
+     * 每个农历月的信息：(年份-1899) << 5 | 闰月标记 << 4 | 月份
+     */
+    private static final short[] MONTH_INFO;
+
+    /**
+     * 每个农历年正月的月下标
+     */
+    private static final int[] NEW_YEAR_MONTH = new int[MAX_YEAR - MIN_YEAR + 1];
+
+    private static final int MONTH_COUNT;
+
+    private static final int LAST_DAY;
+
+    static {
+        int count = 1;
+        for (int info : LUNAR_INFO) {
+            count += (info & 0xf) != 0 ? 13 : 12;
+        }
+        MONTH_COUNT = count;
+        MONTH_START = new int[count + 1];
+        MONTH_INFO = new short[count];
+
+        MONTH_START[0] = FIRST_DAY;
+        MONTH_INFO[0] = (short) 12;
+
+        int index = 1;
+        int start = FIRST_NEW_YEAR_DAY;
+        for (int y = MIN_YEAR; y <= MAX_YEAR; y++) {
+            int info = LUNAR_INFO[y - MIN_YEAR];
+            int leapMonth = info & 0xf;
+            int yearBits = (y - (MIN_YEAR - 1)) << 5;
+            NEW_YEAR_MONTH[y - MIN_YEAR] = index;
+            for (int m = 1; m <= 12; m++) {
+                MONTH_START[index] = start;
+                MONTH_INFO[index++] = (short) (yearBits | m);
+                start += (info & (0x10000 >> m)) != 0 ? 30 : 29;
+                if (m == leapMonth) {
+                    MONTH_START[index] = start;
+                    MONTH_INFO[index++] = (short) (yearBits | 0x10 | m);
+                    start += (info & 0x10000) != 0 ? 30 : 29;
+                }
+            }
+        }
+        MONTH_START[count] = start;
+        LAST_DAY = start;
+    }
+
+    private LunarCalendar() {
+    }
+
+    /**
+     * 公历转农历
+     *
+     * @throws IllegalArgumentException 日期超出1900-01-01至2101-01-28（农历2100年末）范围
+     */
+    public static LunarDate fromSolar(LocalDate solarDate) {
+        return fromEpochDay(solarDate.toEpochDay());
+    }
+
+    /**
+     * 按epoch day转农历
+     */
+    public static LunarDate fromEpochDay(long epochDay) {
+        int index = monthIndex(epochDay);
+        int info = MONTH_INFO[index];
+        int year = (MIN_YEAR - 1) + (info >> 5);
+
+        LunarDate lunarDate = LunarDate.of(year, info & 0xf, (int) (epochDay - MONTH_START[index]) + 1,
+                                           (info & 0x10) != 0);
+        lunarDate.setYearGanZhi(GanZhiCycle.name(GanZhiCycle.yearJiaZi(year)));
+        lunarDate.setDayGanZhi(GanZhiCycle.name(GanZhiCycle.dayJiaZi(epochDay)));
+        return lunarDate;
+    }
+
+    /**
+     * 农历转公历
+     *
+     * @param leap 是否闰月
+     * @throws IllegalArgumentException 年份超出1900-2100、该年没有此闰月或日期超出当月天数
+     */
+    public static LocalDate toSolar(int lunarYear, int month, int day, boolean leap) {
+        int days = monthDays(lunarYear, month, leap);
+        if (day < 1 || day > days) {
+            throw new IllegalArgumentException(String.format("农历%d年%s%d月只有%d天：%d", lunarYear, leap ? "闰" : "", month, days, day));
+        }
+        int leapMonth = LUNAR_INFO[lunarYear - MIN_YEAR] & 0xf;
+        // 闰月排在同名月之后，闰月以后的月份下标顺延一位
+        int index = NEW_YEAR_MONTH[lunarYear - MIN_YEAR] + month - 1
+                + (leap || (leapMonth != 0 && month > leapMonth) ? 1 : 0);
+        return LocalDate.ofEpochDay(MONTH_START[index] + day - 1L);
+    }
+
+    /**
+     * 公历日期是否在支持范围内
+     */
+    public static boolean isSupported(LocalDate solarDate) {
+        long epochDay = solarDate.toEpochDay();
+        return epochDay >= FIRST_DAY && epochDay < LAST_DAY;
+    }
+
+    /**
+     * 获取农历年的闰月月份，无闰月返回0
+     */
+    public static int leapMonth(int lunarYear) {
+        checkYear(lunarYear);
+        return LUNAR_INFO[lunarYear - MIN_YEAR] & 0xf;
+    }
+
+    /**
+     * 获取农历月天数
+     */
+    public static int monthDays(int lunarYear, int month, boolean leap) {
+        checkYear(lunarYear);
+        int info = LUNAR_INFO[lunarYear - MIN_YEAR];
+        if (leap) {
+            if ((info & 0xf) != month) {
+                throw new IllegalArgumentException(String.format("农历%d年没有闰%d月", lunarYear, month));
+            }
+            return (info & 0x10000) != 0 ? 30 : 29;
+        }
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("农历月份超出范围(1-12)：" + month);
+        }
+        return (info & (0x10000 >> month)) != 0 ? 30 : 29;
+    }
+
+    /**
+     * 定位epoch day所在的农历月下标
+     */
+    private static int monthIndex(long epochDay) {
+        if (epochDay < FIRST_DAY || epochDay >= LAST_DAY) {
+            throw new IllegalArgumentException("日期超出农历支持范围(1900-2100)：" + LocalDate.ofEpochDay(epochDay));
+        }
+        int day = (int) epochDay;
+        int index = Math.min((int) ((day - FIRST_DAY) / MEAN_SYNODIC_MONTH), MONTH_COUNT - 1);
+        while (MONTH_START[index] > day) {
+            index--;
+        }
+        while (MONTH_START[index + 1] <= day) {
+            index++;
+        }
+        return index;
+    }
+
+    private static void checkYear(int lunarYear) {
+        if (lunarYear < MIN_YEAR || lunarYear > MAX_YEAR) {
+            throw new IllegalArgumentException("农历年份超出范围(1900-2100)：" + lunarYear);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.fortune.domain.fortune.calendar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 二十四节气索引
+ *
+ * 交节时刻预先算好存放在 calendar/solar-terms.txt，类加载时解析为按时间排序的
+ * epoch分钟数组（UTC）。年柱以立春、月柱以各"节"为界，按出生时刻二分查找一次即可
+ * 同时得到年柱和月柱，运行时不做任何天文计算。
+ *
+ * 数组下标 i 对应 (1899 + i / 24) 年的第 (i % 24) 个节气，0为小寒，2为立春，偶数为"节"。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class SolarTerms {
+
+    /**
+     * 节气名称，下标与每年的节气序号一致
+     */
+    public static final String[] NAMES = {
+        "小寒", "大寒", "立春", "雨水", "惊蛰", "春分", "清明", "谷雨", "立夏", "小满", "芒种", "夏至",
+        "小暑", "大暑", "立秋", "处暑", "白露", "秋分", "寒露", "霜降", "立冬", "小雪", "大雪", "冬至"
+    };
+
+    /**
+     * 北京时间
+     */
+    public static final ZoneOffset BEIJING = ZoneOffset.ofHours(8);
+
+    private static final String RESOURCE = "/calendar/solar-terms.txt";
+
+    private static final int FIRST_YEAR = 1899;
+
+    private static final int LAST_YEAR = 2100;
+
+    /**
+     * 1899年小寒为戊戌年乙丑月，乙丑在六十甲子中序号为1
+     */
+    private static final int FIRST_MONTH_JIA_ZI = 1;
+
+    private static final long[] TERM_MINUTES = load();
+
+    /**
+     * 支持的最晚时刻（不含），即2101-01-01 00:00
+     */
+    private static final long END_MINUTE = toEpochMinute(LocalDateTime.of(LAST_YEAR + 1, 1, 1, 0, 0));
+
+    private SolarTerms() {
+    }
+
+    /**
+     * 北京时间转epoch分钟
+     */
+    public static long toEpochMinute(LocalDateTime beijingTime) {
+        return Math.floorDiv(beijingTime.toEpochSecond(BEIJING), 60);
+    }
+
+    /**
+     * 查找不晚于给定时刻的最近一个节气的下标
+     *
+     * @throws IllegalArgumentException 时刻超出1899年小寒至2100年末的范围
+     */
+    public static int indexOf(long epochMinute) {
+        if (epochMinute < TERM_MINUTES[0] || epochMinute >= END_MINUTE) {
+            throw new IllegalArgumentException("日期超出节气表支持范围(1900-2100)");
+        }
+        int index = Arrays.binarySearch(TERM_MINUTES, epochMinute);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * 节气交节时刻（epoch分钟）
+     */
+    public static long minuteOf(int index) {
+        return TERM_MINUTES[index];
+    }
+
+    /**
+     * 节气总数
+     */
+    public static int size() {
+        return TERM_MINUTES.length;
+    }
+
+    /**
+     * 节气名称
+     */
+    public static String nameOf(int index) {
+        return NAMES[index % 24];
+    }
+
+    /**
+     * 节气所在公历年
+     */
+    public static int gregorianYearOf(int index) {
+        return FIRST_YEAR + index / 24;
+    }
+
+    /**
+     * 节气是否为"节"（月柱分界），否则为"中气"
+     */
+    public static boolean isJie(int index) {
+        return (index & 1) == 0;
+    }
+
+    /**
+     * 该节气所属干支年（以立春为界）的公历年份
+     */
+    public static int suiYearOf(int index) {
+        return FIRST_YEAR + Math.floorDiv(index - 2, 24);
+    }
+
+    /**
+     * 该节气所在时段的年柱甲子序号
+     */
+    public static int yearJiaZi(int index) {
+        return GanZhiCycle.yearJiaZi(suiYearOf(index));
+    }
+
+    /**
+     * 该节气所在时段的月柱甲子序号，每两个节气为一个干支月
+     */
+    public static int monthJiaZi(int index) {
+        return (FIRST_MONTH_JIA_ZI + (index >> 1)) % 60;
+    }
+
+    private static long[] load() {
+        long[] minutes = new long[(LAST_YEAR - FIRST_YEAR + 1) * 24];
+        int count = 0;
+        try (InputStream in = SolarTerms.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("节气表资源不存在：" + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                int year = Integer.parseInt(parts[0]);
+                if (year != FIRST_YEAR + count / 24 || parts.length != 25) {
+                    throw new IllegalStateException("节气表数据不完整：" + year);
+                }
+                for (int i = 1; i <= 24; i++) {
+                    String t = parts[i];
+                    LocalDateTime time = LocalDateTime.of(year,
+                            Integer.parseInt(t.substring(0, 2)), Integer.parseInt(t.substring(2, 4)),
+                            Integer.parseInt(t.substring(4, 6)), Integer.parseInt(t.substring(6, 8)));
+                    minutes[count++] = toEpochMinute(time);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载节气表失败", e);
+        }
+        if (count != minutes.length) {
+            throw new IllegalStateException("节气表数据不完整，共" + count + "条");
+        }
+        for (int i = 1; i < count; i++) {
+            if (minutes[i] <= minutes[i - 1]) {
+                throw new IllegalStateException("节气表未按时间排序：" + (FIRST_YEAR + i / 24) + NAMES[i % 24]);
+            }
+        }
+        return minutes;
+    }
+}
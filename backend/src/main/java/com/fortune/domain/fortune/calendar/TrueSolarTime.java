@@ -0,0 +1,51 @@
+package com.fortune.domain.fortune.calendar;
+
+import java.time.LocalDate;
+
+/**
+ * 真太阳时校正
+ *
+ * 真太阳时 = 北京时间 + 经度差（每度4分钟，以东经120°为基准） + 均时差。
+ * 均时差按一年中的日序用近似公式 9.87·sin2B - 7.53·cosB - 1.5·sinB（B = 2π(N-81)/365）
+ * 在类加载时算成366项的秒数表，校正时只做一次查表和一次乘法。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class TrueSolarTime {
+
+    /**
+     * 北京时间的基准经度
+     */
+    private static final double STANDARD_LONGITUDE = 120.0;
+
+    private static final double MINUTES_PER_DEGREE = 4.0;
+
+    /**
+     * 均时差（秒），下标为一年中的日序减一
+     */
+    private static final short[] EQUATION_OF_TIME_SECONDS = new short[366];
+
+    static {
+        for (int day = 0; day < EQUATION_OF_TIME_SECONDS.length; day++) {
+            double b = 2 * Math.PI * (day + 1 - 81) / 365.0;
+            double minutes = 9.87 * Math.sin(2 * b) - 7.53 * Math.cos(b) - 1.5 * Math.sin(b);
+            EQUATION_OF_TIME_SECONDS[day] = (short) Math.round(minutes * 60);
+        }
+    }
+
+    private TrueSolarTime() {
+    }
+
+    /**
+     * 北京时间到真太阳时的校正分钟数（东经120°以西为负）
+     *
+     * @param longitude 出生地经度（东经，度）
+     * @param date      出生日期
+     */
+    public static int correctionMinutes(double longitude, LocalDate date) {
+        double seconds = (longitude - STANDARD_LONGITUDE) * MINUTES_PER_DEGREE * 60
+                         + EQUATION_OF_TIME_SECONDS[date.getDayOfYear() - 1];
+        return (int) Math.round(seconds / 60);
+    }
+}
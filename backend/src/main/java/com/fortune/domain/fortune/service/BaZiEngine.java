@@ -0,0 +1,237 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 八字排盘引擎
+ *
+ * 所有排盘入口统一走这里：年柱以立春为界、月柱以节为界（一次节气表二分查找），
+ * 日柱由儒略日数取模，时柱按日柱顺推（每日12个时辰连续循环六十甲子）。
+ * 天干、地支、五行均以序号参与计算，除返回的 GanZhi 外不分配对象。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class BaZiEngine {
+
+    /**
+     * 五行名称，序号按相生顺序排列：0木 1火 2土 3金 4水
+     */
+    public static final String[] WU_XING = {"木", "火", "土", "金", "水"};
+
+    /**
+     * 天干五行：甲乙木，丙丁火，戊己土，庚辛金，壬癸水
+     */
+    public static final byte[] STEM_WU_XING = {0, 0, 1, 1, 2, 2, 3, 3, 4, 4};
+
+    /**
+     * 地支五行：寅卯木，巳午火，申酉金，亥子水，辰戌丑未土
+     */
+    public static final byte[] BRANCH_WU_XING = {4, 2, 0, 0, 2, 1, 1, 2, 3, 3, 2, 4};
+
+    private static final String[] SHI_CHEN = {
+        "子时", "丑时", "寅时", "卯时", "辰时", "巳时", "午时", "未时", "申时", "酉时", "戌时", "亥时"
+    };
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static final int BEIJING_OFFSET_MINUTES = 480;
+
+    /**
+     * 23点起（子初）换日
+     */
+    private static final int DAY_CHANGE_MINUTE = 23 * 60;
+
+    private BaZiEngine() {
+    }
+
+    /**
+     * 时辰名称转地支序号（"午时"或"午"），无法识别返回-1
+     */
+    public static int hourBranchOf(String shiChen) {
+        if (shiChen == null) {
+            return -1;
+        }
+        for (int i = 0; i < 12; i++) {
+            if (SHI_CHEN[i].equals(shiChen) || GanZhiCycle.DI_ZHI[i].equals(shiChen)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析"HH:mm"格式的出生钟点，返回当日分钟数；不是钟点格式（如时辰名称）返回-1
+     *
+     * @throws IllegalArgumentException 钟点格式正确但超出范围
+     */
+    public static int clockMinuteOf(String birthTime) {
+        if (birthTime == null) {
+            return -1;
+        }
+        String time = birthTime.trim();
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() != colon + 3) {
+            return -1;
+        }
+        int hour = 0;
+        int minute = 0;
+        for (int i = 0; i < time.length(); i++) {
+            char c = time.charAt(i);
+            if (i == colon) {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            if (i < colon) {
+                hour = hour * 10 + (c - '0');
+            } else {
+                minute = minute * 10 + (c - '0');
+            }
+        }
+        if (hour > 23 || minute > 59) {
+            throw new IllegalArgumentException("出生时间超出范围：" + birthTime);
+        }
+        return hour * 60 + minute;
+    }
+
+    /**
+     * 出生时间在当日的分钟数：钟点按原值，时辰取中点时刻（子时取当日0点），无法识别返回-1
+     */
+    public static int birthMinuteOfDay(String birthTime) {
+        int clockMinute = clockMinuteOf(birthTime);
+        if (clockMinute >= 0) {
+            return clockMinute;
+        }
+        int hourBranch = hourBranchOf(birthTime);
+        return hourBranch < 0 ? -1 : hourBranch * 120;
+    }
+
+    /**
+     * 按出生日期和时辰排盘，时辰取中点时刻（子时取当日0点）
+     */
+    public static GanZhi calculate(LocalDate birthDate, int hourBranch) {
+        if (hourBranch < 0 || hourBranch > 11) {
+            throw new IllegalArgumentException("出生时辰超出范围(0-11)：" + hourBranch);
+        }
+        long localMinute = birthDate.toEpochDay() * MINUTES_PER_DAY + hourBranch * 120L;
+        return calculate(localMinute - BEIJING_OFFSET_MINUTES);
+    }
+
+    /**
+     * 按北京时间出生时刻排盘
+     */
+    public static GanZhi calculate(LocalDateTime beijingTime) {
+        return calculate(SolarTerms.toEpochMinute(beijingTime));
+    }
+
+    /**
+     * 按epoch分钟排盘
+     */
+    public static GanZhi calculate(long epochMinute) {
+        return calculate(epochMinute, 0);
+    }
+
+    /**
+     * 按epoch分钟排盘，日柱、时柱按真太阳时
+     *
+     * 年柱、月柱以交节时刻为界，交节是绝对时刻，不受出生地影响；
+     * 换日和时辰按北京时间加上校正分钟数后的地方真太阳时判断。
+     *
+     * @param solarCorrectionMinutes 北京时间到真太阳时的校正分钟数，见 TrueSolarTime
+     */
+    public static GanZhi calculate(long epochMinute, int solarCorrectionMinutes) {
+        int term = SolarTerms.indexOf(epochMinute);
+
+        long localMinute = epochMinute + BEIJING_OFFSET_MINUTES + solarCorrectionMinutes;
+        long epochDay = Math.floorDiv(localMinute, MINUTES_PER_DAY);
+        int minuteOfDay = (int) Math.floorMod(localMinute, MINUTES_PER_DAY);
+        int hourBranch = (minuteOfDay / 60 + 1) / 2 % 12;
+        if (minuteOfDay >= DAY_CHANGE_MINUTE) {
+            epochDay++;
+        }
+
+        int day = GanZhiCycle.dayJiaZi(epochDay);
+        return GanZhi.of(SolarTerms.yearJiaZi(term), SolarTerms.monthJiaZi(term), day, (day * 12 + hourBranch) % 60);
+    }
+
+    /**
+     * 统计四柱八字的五行个数
+     *
+     * @return 按五行序号每4位一个计数压缩成的int，用 {@link #count(int, int)} 读取
+     */
+    public static int countWuXing(GanZhi ganZhi) {
+        int packed = 0;
+        for (int pillar = 0; pillar < 4; pillar++) {
+            packed += 1 << (STEM_WU_XING[ganZhi.stem(pillar)] << 2);
+            packed += 1 << (BRANCH_WU_XING[ganZhi.branch(pillar)] << 2);
+        }
+        return packed;
+    }
+
+    /**
+     * 读取压缩计数中某一五行的个数
+     */
+    public static int count(int packedCounts, int wuXing) {
+        return (packedCounts >> (wuXing << 2)) & 0xf;
+    }
+
+    /**
+     * 缺失五行的位掩码，第i位为1表示缺第i个五行
+     */
+    public static int lackMask(int packedCounts) {
+        int mask = 0;
+        for (int i = 0; i < 5; i++) {
+            if (count(packedCounts, i) == 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 五行属性字符串，如"木2个 火0个 土3个 金1个 水2个"
+     */
+    public static String formatWuXing(int packedCounts) {
+        StringBuilder sb = new StringBuilder(24);
+        for (int i = 0; i < 5; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WU_XING[i]).append(count(packedCounts, i)).append('个');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 五行缺失字符串，如"金、水"，不缺返回"无"
+     */
+    public static String formatLack(int lackMask) {
+        if (lackMask == 0) {
+            return "无";
+        }
+        StringBuilder sb = new StringBuilder(10);
+        for (int i = 0; i < 5; i++) {
+            if ((lackMask & (1 << i)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append('、');
+                }
+                sb.append(WU_XING[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生肖，随年柱以立春为界
+     */
+    public static String shengXiao(GanZhi ganZhi) {
+        return GanZhiCycle.SHENG_XIAO[ganZhi.branch(0)];
+    }
+}
@@ -0,0 +1,123 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 八字反查索引
+ *
+ * 每个干支月（相邻两个"节"之间）的年柱、月柱组合是唯一的，且每六十年重复一次。
+ * 类加载时按 年柱序号*60+月柱序号 把1900-2100年间的全部干支月编成倒排表，每个键只有三四个干支月。
+ * 反查时取出这几个干支月，日柱每六十天一轮，在一个干支月内至多出现一次，直接按序号差算出是哪一天；
+ * 时柱由日柱和时辰唯一确定，校验后截取对应的两小时。全程只有几次数组读取，不逐日扫描。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class BaZiReverseIndex {
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static final int BEIJING_OFFSET_MINUTES = 480;
+
+    /**
+     * 23点换日：八字日比民用日早一小时开始
+     */
+    private static final int DAY_CHANGE_OFFSET_MINUTES = 60;
+
+    /**
+     * 年柱序号*60+月柱序号 -> 该组合所在干支月起始"节"的节气下标
+     */
+    private static final int[][] MONTHS_BY_PILLARS = new int[3600][];
+
+    /**
+     * 支持范围的结束时刻（不含），即节气表末年的次年元旦
+     */
+    private static final long END_MINUTE;
+
+    static {
+        List<List<Integer>> months = new ArrayList<>(3600);
+        for (int i = 0; i < 3600; i++) {
+            months.add(new ArrayList<>(4));
+        }
+        for (int term = 0; term < SolarTerms.size(); term += 2) {
+            months.get(key(SolarTerms.yearJiaZi(term), SolarTerms.monthJiaZi(term))).add(term);
+        }
+        for (int i = 0; i < 3600; i++) {
+            MONTHS_BY_PILLARS[i] = months.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        END_MINUTE = SolarTerms.toEpochMinute(LocalDateTime.of(SolarTerms.gregorianYearOf(SolarTerms.size() - 1) + 1, 1, 1, 0, 0));
+    }
+
+    private BaZiReverseIndex() {
+    }
+
+    /**
+     * 反查出生时段
+     *
+     * @param hour 时柱甲子序号，未知传-1，此时返回整日时段
+     * @return 按时间排序的候选时段，每项为 [起始, 结束) 的epoch分钟
+     * @throws IllegalArgumentException 柱序号超出范围
+     */
+    public static List<long[]> lookup(int year, int month, int day, int hour) {
+        checkJiaZi(year, "年柱");
+        checkJiaZi(month, "月柱");
+        checkJiaZi(day, "日柱");
+        if (hour != -1) {
+            checkJiaZi(hour, "时柱");
+        }
+
+        List<long[]> result = new ArrayList<>(4);
+        // 时柱天干由日干决定（五鼠遁），不符则无解
+        if (hour >= 0 && (day * 12 + hour % 12) % 60 != hour) {
+            return result;
+        }
+        for (int term : MONTHS_BY_PILLARS[key(year, month)]) {
+            long monthStart = SolarTerms.minuteOf(term);
+            long monthEnd = term + 2 < SolarTerms.size() ? SolarTerms.minuteOf(term + 2) : END_MINUTE;
+
+            long firstDay = baZiDayOf(monthStart);
+            long lastDay = baZiDayOf(monthEnd - 1);
+            long matchDay = firstDay + Math.floorMod(day - GanZhiCycle.dayJiaZi(firstDay), 60);
+            if (matchDay > lastDay) {
+                continue;
+            }
+
+            // 八字日 matchDay 从前一民用日23点到当日23点
+            long start = matchDay * MINUTES_PER_DAY - DAY_CHANGE_OFFSET_MINUTES - BEIJING_OFFSET_MINUTES;
+            long end = start + MINUTES_PER_DAY;
+            if (hour >= 0) {
+                start += (hour % 12) * 120L;
+                end = start + 120;
+            }
+            start = Math.max(start, monthStart);
+            end = Math.min(end, monthEnd);
+            if (start < end) {
+                result.add(new long[]{start, end});
+            }
+        }
+        result.sort((a, b) -> Long.compare(a[0], b[0]));
+        return result;
+    }
+
+    /**
+     * epoch分钟所属的八字日（以该日柱对应民用日的epoch day表示）
+     */
+    private static long baZiDayOf(long epochMinute) {
+        return Math.floorDiv(epochMinute + BEIJING_OFFSET_MINUTES + DAY_CHANGE_OFFSET_MINUTES, MINUTES_PER_DAY);
+    }
+
+    private static int key(int yearJiaZi, int monthJiaZi) {
+        return yearJiaZi * 60 + monthJiaZi;
+    }
+
+    private static void checkJiaZi(int jiaZi, String pillar) {
+        if (jiaZi < 0 || jiaZi >= 60) {
+            throw new IllegalArgumentException(pillar + "无法识别");
+        }
+    }
+}
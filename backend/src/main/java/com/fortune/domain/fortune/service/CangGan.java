@@ -0,0 +1,41 @@
+package com.fortune.domain.fortune.service;
+
+/**
+ * 地支藏干表
+ *
+ * 单独成类、不依赖其他类，供 ShiShen 与 WuXingAnalyzer 在类加载时读取，两者之间不形成初始化循环。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class CangGan {
+
+    /**
+     * 地支藏干（本气、中气、余气），按地支序号排列，元素为天干序号
+     */
+    public static final byte[][] STEMS = {
+        {9},          // 子：癸
+        {5, 9, 7},    // 丑：己 癸 辛
+        {0, 2, 4},    // 寅：甲 丙 戊
+        {1},          // 卯：乙
+        {4, 1, 9},    // 辰：戊 乙 癸
+        {2, 4, 6},    // 巳：丙 戊 庚
+        {3, 5},       // 午：丁 己
+        {5, 3, 1},    // 未：己 丁 乙
+        {6, 8, 4},    // 申：庚 壬 戊
+        {7},          // 酉：辛
+        {4, 7, 3},    // 戌：戊 辛 丁
+        {8, 0}        // 亥：壬 甲
+    };
+
+    /**
+     * 藏干权重（十分制，每个地支合计10），与 STEMS 一一对应
+     */
+    public static final byte[][] WEIGHTS = {
+        {10}, {6, 3, 1}, {6, 3, 1}, {10}, {6, 3, 1}, {6, 3, 1},
+        {7, 3}, {6, 3, 1}, {6, 3, 1}, {10}, {6, 3, 1}, {7, 3}
+    };
+
+    private CangGan() {
+    }
+}
@@ -0,0 +1,191 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.valueobject.BirthInfo;
+import com.fortune.domain.fortune.valueobject.DaYun;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.LiuNian;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 大运流年时间线
+ *
+ * 阳年男、阴年女顺行，阴年男、阳年女逆行；大运干支由月柱依次顺推或逆推。
+ * 起运岁数按出生时刻到下一个（顺行）或上一个（逆行）"节"的间隔折算，三天折一年（即六小时折一个月）。
+ * 创建时只做一次节气查找，每步大运及其流年在迭代到时才生成，只取前几步大运时不会计算整个一生。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class DaYunTimeline implements Iterable<DaYun> {
+
+    /**
+     * 最多排十二步大运（一百二十年）
+     */
+    public static final int MAX_STEPS = 12;
+
+    private static final int YEARS_PER_STEP = 10;
+
+    /**
+     * 三天（4320分钟）折一年，即360分钟折一个月
+     */
+    private static final int MINUTES_PER_MONTH = 360;
+
+    private final int monthJiaZi;
+
+    private final boolean forward;
+
+    private final int startMonths;
+
+    private final LocalDate birthDate;
+
+    private DaYunTimeline(int monthJiaZi, boolean forward, int startMonths, LocalDate birthDate) {
+        this.monthJiaZi = monthJiaZi;
+        this.forward = forward;
+        this.startMonths = startMonths;
+        this.birthDate = birthDate;
+    }
+
+    /**
+     * 由出生信息排大运，出生时间为钟点（"HH:mm"）时按原值，为时辰时取中点时刻
+     * （大运只取决于年干和月柱，均以交节时刻为界，不需要真太阳时校正）
+     *
+     * @throws IllegalArgumentException 时辰或性别无法识别、日期超出支持范围
+     */
+    public static DaYunTimeline of(BirthInfo birthInfo) {
+        int minuteOfDay = BaZiEngine.birthMinuteOfDay(birthInfo.getBirthTime());
+        if (minuteOfDay < 0) {
+            throw new IllegalArgumentException("出生时辰无法识别：" + birthInfo.getBirthTime());
+        }
+        boolean male = isMale(birthInfo.getGender());
+
+        LocalDate birthDate = birthInfo.getBirthDate();
+        long birthMinute = SolarTerms.toEpochMinute(birthDate.atStartOfDay()) + minuteOfDay;
+        GanZhi ganZhi = BaZiEngine.calculate(birthMinute);
+        boolean yangYear = (ganZhi.stem(0) & 1) == 0;
+        boolean forward = yangYear == male;
+
+        int term = SolarTerms.indexOf(birthMinute);
+        int jie = SolarTerms.isJie(term) ? term : term - 1;
+        long minutes;
+        if (forward) {
+            if (jie + 2 >= SolarTerms.size()) {
+                throw new IllegalArgumentException("日期超出节气表支持范围(1900-2100)");
+            }
+            minutes = SolarTerms.minuteOf(jie + 2) - birthMinute;
+        } else {
+            minutes = birthMinute - SolarTerms.minuteOf(jie);
+        }
+        return new DaYunTimeline(ganZhi.getMonthJiaZi(), forward, (int) (minutes / MINUTES_PER_MONTH), birthDate);
+    }
+
+    /**
+     * 是否顺行
+     */
+    public boolean isForward() {
+        return forward;
+    }
+
+    /**
+     * 起运岁数（整年部分）
+     */
+    public int getStartAgeYears() {
+        return startMonths / 12;
+    }
+
+    /**
+     * 起运岁数（余下月数）
+     */
+    public int getStartAgeMonths() {
+        return startMonths % 12;
+    }
+
+    /**
+     * 起运日期
+     */
+    public LocalDate getStartDate() {
+        return birthDate.plusMonths(startMonths);
+    }
+
+    /**
+     * 从第 from 步（0起）开始最多取 count 步大运
+     */
+    public List<DaYun> slice(int from, int count) {
+        List<DaYun> result = new ArrayList<>(Math.max(0, Math.min(count, MAX_STEPS - from)));
+        Iterator<DaYun> it = iterator(from);
+        for (int i = 0; i < count && it.hasNext(); i++) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<DaYun> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 从第 from 步（0起）开始迭代
+     */
+    public Iterator<DaYun> iterator(int from) {
+        if (from < 0) {
+            throw new IllegalArgumentException("大运起始步数不能为负：" + from);
+        }
+        return new Iterator<DaYun>() {
+            private int step = from;
+
+            @Override
+            public boolean hasNext() {
+                return step < MAX_STEPS;
+            }
+
+            @Override
+            public DaYun next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return daYun(step++);
+            }
+        };
+    }
+
+    private DaYun daYun(int step) {
+        int offset = forward ? step + 1 : -(step + 1);
+        int jiaZi = Math.floorMod(monthJiaZi + offset, 60);
+        int startAge = getStartAgeYears() + step * YEARS_PER_STEP;
+        int startYear = getStartDate().getYear() + step * YEARS_PER_STEP;
+
+        List<LiuNian> liuNian = new ArrayList<>(YEARS_PER_STEP);
+        for (int year = startYear; year < startYear + YEARS_PER_STEP; year++) {
+            liuNian.add(new LiuNian(year, GanZhiCycle.name(GanZhiCycle.yearJiaZi(year)), year - birthDate.getYear()));
+        }
+        return new DaYun(step + 1, GanZhiCycle.name(jiaZi), startAge, startYear,
+                         startYear + YEARS_PER_STEP - 1, liuNian);
+    }
+
+    private static boolean isMale(String gender) {
+        if (gender != null) {
+            switch (gender.trim().toLowerCase()) {
+                case "男":
+                case "male":
+                case "m":
+                case "1":
+                    return true;
+                case "女":
+                case "female":
+                case "f":
+                case "2":
+                    return false;
+                default:
+                    break;
+            }
+        }
+        throw new IllegalArgumentException("性别无法识别，请传入男或女：" + gender);
+    }
+}
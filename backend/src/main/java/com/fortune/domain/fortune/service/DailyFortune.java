@@ -0,0 +1,194 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+
+import java.time.LocalDate;
+
+/**
+ * 每日运势
+ *
+ * 以当日日柱对照本人八字：当日天干相对日主的十神定当日主题，当日地支与本人日支的合冲刑害定人事起伏，
+ * 当日干支五行是否补到本人所缺五行给出宜忌。
+ * 创建时按当日日柱把 10个日主 × 12个日支 的运势文本和 32种五行缺失组合的宜忌全部算好，
+ * 之后每次查询只是两次数组读取和一次字符串拼接，不调用AI。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class DailyFortune {
+
+    /**
+     * 十神当值主题，下标为十神序号，见 {@link ShiShen#NAMES}
+     */
+    private static final String[] SHI_SHEN_THEMES = {
+        "同辈助力多，适合团队协作、与朋友共事",
+        "开销容易增加，理财宜保守，忌借贷担保",
+        "心情舒畅，创意和表达俱佳，适合展示才艺、享受生活",
+        "思维活跃但言辞易锋利，沟通时宜多体谅他人",
+        "有意外收获的机会，可留意副业和人脉带来的财路",
+        "收入平稳，适合踏实工作、规划预算",
+        "压力与挑战并存，宜迎难而上，同时注意情绪和安全",
+        "利于事业与名誉，按规矩办事容易得到上级认可",
+        "灵感独到，适合研究和独处思考，不宜急于决断",
+        "容易得到长辈贵人相助，适合学习进修、签约办证"
+    };
+
+    /**
+     * 十神当值对运势星级的加减
+     */
+    private static final int[] SHI_SHEN_STARS = {0, -1, 1, -1, 1, 1, -1, 1, 0, 1};
+
+    /**
+     * 日支关系文本，下标为 {@link HeHun#branchRelations(int, int)} 的关系位（0位为天干五合，此处不用）
+     */
+    private static final String[] RELATION_TEXTS = {
+        null,
+        "日支逢六合，人缘和顺，感情融洽",
+        "日支逢冲，易有变动奔波，出行和家事多加留意",
+        "日支逢刑，谨防口舌是非",
+        "日支逢害，提防小人，合作细节要落实"
+    };
+
+    private static final int[] RELATION_STARS = {0, 1, -1, -1, -1};
+
+    /**
+     * 五行对应的颜色和方位，按五行序号排列
+     */
+    private static final String[] WU_XING_COLORS = {"绿色", "红色", "黄色", "白色", "黑色或蓝色"};
+
+    private static final String[] WU_XING_DIRECTIONS = {"东方", "南方", "中部", "西方", "北方"};
+
+    private static final int BASE_STARS = 3;
+
+    private final LocalDate date;
+
+    private final int dayJiaZi;
+
+    /**
+     * 运势文本，下标为 [日主天干][日支]
+     */
+    private final String[][] readings = new String[10][12];
+
+    /**
+     * 宜忌文本，下标为五行缺失位掩码
+     */
+    private final String[] lackAdvice = new String[32];
+
+    private final String general;
+
+    private DailyFortune(LocalDate date) {
+        this.date = date;
+        this.dayJiaZi = GanZhiCycle.dayJiaZi(date.toEpochDay());
+        int stem = dayJiaZi % 10;
+        int branch = dayJiaZi % 12;
+        String header = "今日" + GanZhiCycle.name(dayJiaZi) + "日，";
+
+        for (int dayMaster = 0; dayMaster < 10; dayMaster++) {
+            int shiShen = ShiShen.ofStem(dayMaster, stem);
+            for (int dayBranch = 0; dayBranch < 12; dayBranch++) {
+                int stars = BASE_STARS + SHI_SHEN_STARS[shiShen];
+                StringBuilder sb = new StringBuilder(96);
+                sb.append(header).append(ShiShen.name(shiShen)).append("当值，").append(SHI_SHEN_THEMES[shiShen]).append('。');
+                int relations = HeHun.branchRelations(dayBranch, branch);
+                for (int r = 1; r < RELATION_TEXTS.length; r++) {
+                    if ((relations & (1 << r)) != 0) {
+                        sb.append(RELATION_TEXTS[r]).append('。');
+                        stars += RELATION_STARS[r];
+                    }
+                }
+                stars = Math.max(1, Math.min(5, stars));
+                sb.append("综合运势").append(stars(stars)).append('。');
+                readings[dayMaster][dayBranch] = sb.toString();
+            }
+        }
+
+        int stemWuXing = BaZiEngine.STEM_WU_XING[stem];
+        int branchWuXing = BaZiEngine.BRANCH_WU_XING[branch];
+        for (int mask = 0; mask < 32; mask++) {
+            lackAdvice[mask] = advice(mask, stemWuXing, branchWuXing);
+        }
+
+        general = header + "天干" + GanZhiCycle.TIAN_GAN[stem] + BaZiEngine.WU_XING[stemWuXing]
+                  + "、地支" + GanZhiCycle.DI_ZHI[branch] + BaZiEngine.WU_XING[branchWuXing]
+                  + "，冲" + GanZhiCycle.SHENG_XIAO[(branch + 6) % 12]
+                  + "，属" + GanZhiCycle.SHENG_XIAO[(branch + 6) % 12] + "者宜守成、少争执；"
+                  + "属" + GanZhiCycle.SHENG_XIAO[(13 - branch) % 12] + "者逢六合，诸事较顺。"
+                  + "五行缺" + BaZiEngine.WU_XING[stemWuXing]
+                  + (stemWuXing == branchWuXing ? "" : "或" + BaZiEngine.WU_XING[branchWuXing])
+                  + "的朋友今日可借势补益。";
+    }
+
+    /**
+     * 生成某日的运势表
+     */
+    public static DailyFortune of(LocalDate date) {
+        return new DailyFortune(date);
+    }
+
+    /**
+     * 运势表对应的日期
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * 当日日柱甲子序号
+     */
+    public int getDayJiaZi() {
+        return dayJiaZi;
+    }
+
+    /**
+     * 个人运势：按日主、日支取运势文本，按五行缺失取宜忌
+     */
+    public String reading(GanZhi ganZhi) {
+        int lackMask = BaZiEngine.lackMask(BaZiEngine.countWuXing(ganZhi));
+        return readings[ganZhi.getDayMaster()][ganZhi.branch(2)] + lackAdvice[lackMask];
+    }
+
+    /**
+     * 不区分个人的当日运势
+     */
+    public String general() {
+        return general;
+    }
+
+    private static String advice(int lackMask, int stemWuXing, int branchWuXing) {
+        if (lackMask == 0) {
+            return "八字五行俱全，今日顺势而为即可。";
+        }
+        StringBuilder lacking = new StringBuilder(10);
+        StringBuilder colors = new StringBuilder(16);
+        StringBuilder directions = new StringBuilder(16);
+        for (int i = 0; i < 5; i++) {
+            if ((lackMask & (1 << i)) != 0) {
+                if (lacking.length() > 0) {
+                    lacking.append('、');
+                    colors.append('、');
+                    directions.append('、');
+                }
+                lacking.append(BaZiEngine.WU_XING[i]);
+                colors.append(WU_XING_COLORS[i]);
+                directions.append(WU_XING_DIRECTIONS[i]);
+            }
+        }
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("八字缺").append(lacking).append('，');
+        int todayMask = (1 << stemWuXing) | (1 << branchWuXing);
+        if ((todayMask & lackMask) != 0) {
+            sb.append("今日干支正补所缺，宜把握时机，");
+        }
+        sb.append("可多用").append(colors).append("，向").append(directions).append("活动。");
+        return sb.toString();
+    }
+
+    private static String stars(int count) {
+        StringBuilder sb = new StringBuilder(5);
+        for (int i = 0; i < 5; i++) {
+            sb.append(i < count ? '★' : '☆');
+        }
+        return sb.toString();
+    }
+}
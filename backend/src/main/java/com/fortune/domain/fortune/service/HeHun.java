@@ -0,0 +1,224 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.valueobject.GanZhi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 合婚评分
+ *
+ * 两命四柱逐柱对照：天干五合，地支六合、相冲、相刑、相害。六十甲子两两之间的关系位和得分
+ * 在类加载时算成两张 60×60 查表，比较一对八字只需四次查表；年、月、日、时四柱按权重累加，日柱（夫妻宫）最重。
+ * 五行互补取双方月令折算后的五行力量占比，各自低于均值（20%）的缺口由对方该五行补足的比例计分。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class HeHun {
+
+    /**
+     * 关系名称，下标为关系位
+     */
+    public static final String[] RELATION_NAMES = {"天干五合", "地支六合", "地支相冲", "地支相刑", "地支相害"};
+
+    private static final int STEM_HE = 0;
+
+    private static final int BRANCH_HE = 1;
+
+    private static final int BRANCH_CHONG = 2;
+
+    private static final int BRANCH_XING = 3;
+
+    private static final int BRANCH_HAI = 4;
+
+    /**
+     * 各关系得分，与 RELATION_NAMES 一一对应
+     */
+    private static final int[] RELATION_WEIGHTS = {8, 10, -10, -6, -6};
+
+    private static final String[] PILLAR_NAMES = {"年柱", "月柱", "日柱", "时柱"};
+
+    /**
+     * 四柱权重：日柱为夫妻宫，年柱定生肖相合，时柱最轻
+     */
+    private static final int[] PILLAR_WEIGHTS = {3, 2, 4, 1};
+
+    /**
+     * 加权关系分达到±该值时，关系得分为100或0
+     */
+    private static final int RELATION_SCALE = 60;
+
+    /**
+     * 五行力量占比均值（百分比）
+     */
+    private static final int AVERAGE_PERCENT = 20;
+
+    /**
+     * 综合得分中关系得分的权重（十分制），其余为五行互补
+     */
+    private static final int RELATION_SHARE = 6;
+
+    /**
+     * 地支相刑（不分先后）：子卯；寅巳申；丑戌未；辰午酉亥自刑
+     */
+    private static final int[][] XING_PAIRS = {
+        {0, 3}, {2, 5}, {5, 8}, {2, 8}, {1, 10}, {10, 7}, {1, 7}, {4, 4}, {6, 6}, {9, 9}, {11, 11}
+    };
+
+    /**
+     * 地支对的关系位（只含地支关系）
+     */
+    private static final byte[][] BRANCH_RELATIONS = new byte[12][12];
+
+    /**
+     * 甲子序号对的关系位
+     */
+    private static final byte[][] RELATIONS = new byte[60][60];
+
+    /**
+     * 甲子序号对的得分
+     */
+    private static final byte[][] PAIR_SCORE = new byte[60][60];
+
+    static {
+        boolean[][] xing = new boolean[12][12];
+        for (int[] pair : XING_PAIRS) {
+            xing[pair[0]][pair[1]] = true;
+            xing[pair[1]][pair[0]] = true;
+        }
+        for (int a = 0; a < 12; a++) {
+            for (int b = 0; b < 12; b++) {
+                int bits = 0;
+                if ((a + b) % 12 == 1) {
+                    bits |= 1 << BRANCH_HE;
+                }
+                if (Math.abs(a - b) == 6) {
+                    bits |= 1 << BRANCH_CHONG;
+                }
+                if (xing[a][b]) {
+                    bits |= 1 << BRANCH_XING;
+                }
+                if ((a + b) % 12 == 7) {
+                    bits |= 1 << BRANCH_HAI;
+                }
+                BRANCH_RELATIONS[a][b] = (byte) bits;
+            }
+        }
+        for (int a = 0; a < 60; a++) {
+            for (int b = 0; b < 60; b++) {
+                int bits = BRANCH_RELATIONS[a % 12][b % 12];
+                if (Math.abs(a % 10 - b % 10) == 5) {
+                    bits |= 1 << STEM_HE;
+                }
+
+                int score = 0;
+                for (int r = 0; r < RELATION_WEIGHTS.length; r++) {
+                    if ((bits & (1 << r)) != 0) {
+                        score += RELATION_WEIGHTS[r];
+                    }
+                }
+                RELATIONS[a][b] = (byte) bits;
+                PAIR_SCORE[a][b] = (byte) score;
+            }
+        }
+    }
+
+    private HeHun() {
+    }
+
+    /**
+     * 两柱之间的关系位，第i位对应 RELATION_NAMES[i]
+     */
+    public static int relations(int jiaZiA, int jiaZiB) {
+        return RELATIONS[jiaZiA][jiaZiB];
+    }
+
+    /**
+     * 两地支之间的关系位（六合、冲、刑、害），位含义同 {@link #relations(int, int)}
+     */
+    public static int branchRelations(int branchA, int branchB) {
+        return BRANCH_RELATIONS[branchA][branchB];
+    }
+
+    /**
+     * 四柱关系得分（0-100，无任何合冲刑害为50）
+     */
+    public static int relationScore(GanZhi a, GanZhi b) {
+        int weighted = PILLAR_WEIGHTS[0] * PAIR_SCORE[a.getYearJiaZi()][b.getYearJiaZi()]
+                       + PILLAR_WEIGHTS[1] * PAIR_SCORE[a.getMonthJiaZi()][b.getMonthJiaZi()]
+                       + PILLAR_WEIGHTS[2] * PAIR_SCORE[a.getDayJiaZi()][b.getDayJiaZi()]
+                       + PILLAR_WEIGHTS[3] * PAIR_SCORE[a.getHourJiaZi()][b.getHourJiaZi()];
+        return clamp(50 + weighted * 50 / RELATION_SCALE);
+    }
+
+    /**
+     * 五行互补得分（0-100）：双方低于均值的五行缺口中，由对方该五行力量占比补足的比例；双方都不缺为100
+     *
+     * @param strengthA 五行力量，见 {@link WuXingAnalyzer#strength(GanZhi)}
+     */
+    public static int complementScore(int[] strengthA, int[] strengthB) {
+        int totalA = 0;
+        int totalB = 0;
+        for (int i = 0; i < 5; i++) {
+            totalA += strengthA[i];
+            totalB += strengthB[i];
+        }
+        if (totalA == 0 || totalB == 0) {
+            return 0;
+        }
+        int need = 0;
+        int filled = 0;
+        for (int i = 0; i < 5; i++) {
+            int percentA = strengthA[i] * 100 / totalA;
+            int percentB = strengthB[i] * 100 / totalB;
+            int needA = Math.max(0, AVERAGE_PERCENT - percentA);
+            int needB = Math.max(0, AVERAGE_PERCENT - percentB);
+            need += needA + needB;
+            filled += Math.min(needA, percentB) + Math.min(needB, percentA);
+        }
+        return need == 0 ? 100 : filled * 100 / need;
+    }
+
+    /**
+     * 综合得分（0-100）
+     */
+    public static int score(int relationScore, int complementScore) {
+        return (relationScore * RELATION_SHARE + complementScore * (10 - RELATION_SHARE)) / 10;
+    }
+
+    /**
+     * 评级
+     */
+    public static String level(int score) {
+        if (score >= 75) {
+            return "上等婚配";
+        }
+        if (score >= 55) {
+            return "中等婚配";
+        }
+        return "下等婚配";
+    }
+
+    /**
+     * 逐柱列出关系，如"日柱地支六合"
+     */
+    public static List<String> describeRelations(GanZhi a, GanZhi b) {
+        List<String> result = new ArrayList<>(4);
+        int[] jiaZiA = {a.getYearJiaZi(), a.getMonthJiaZi(), a.getDayJiaZi(), a.getHourJiaZi()};
+        int[] jiaZiB = {b.getYearJiaZi(), b.getMonthJiaZi(), b.getDayJiaZi(), b.getHourJiaZi()};
+        for (int pillar = 0; pillar < 4; pillar++) {
+            int bits = RELATIONS[jiaZiA[pillar]][jiaZiB[pillar]];
+            for (int r = 0; r < RELATION_NAMES.length; r++) {
+                if ((bits & (1 << r)) != 0) {
+                    result.add(PILLAR_NAMES[pillar] + RELATION_NAMES[r]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+}
@@ -0,0 +1,224 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 神煞
+ *
+ * 规则以数据形式写在 rules/shen-sha.txt，类加载时每条规则的每种查法编译成一张查表：
+ * 以查法所在干支的序号为下标，值为目标干支的位掩码（低12位地支，其上10位天干）。
+ * 排盘时先求出八个干支各自"其余七个干支"的位掩码，每个查表项只需一次数组读取和一次按位与，
+ * 命中结果汇总为 long 位集（第i位对应第i条规则），热路径上没有按规则区分的分支。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class ShenSha {
+
+    private static final String RESOURCE = "/rules/shen-sha.txt";
+
+    private static final int MAX_RULES = 64;
+
+    /**
+     * 天干在位掩码中的起始位
+     */
+    private static final int STEM_BIT_OFFSET = 12;
+
+    /**
+     * 八个干支位置：0-3为年月日时天干，4-7为年月日时地支
+     */
+    private static final List<String> POSITIONS = Arrays.asList("年干", "月干", "日干", "时干", "年支", "月支", "日支", "时支");
+
+    private static final String[] NAMES;
+
+    /**
+     * 查表项所属规则序号
+     */
+    private static final byte[] ENTRY_RULE;
+
+    /**
+     * 查表项的查法位置
+     */
+    private static final byte[] ENTRY_POSITION;
+
+    /**
+     * 查表项：查法干支序号 -> 目标位掩码
+     */
+    private static final int[][] ENTRY_TABLE;
+
+    static {
+        List<String> names = new ArrayList<>();
+        List<int[]> entries = new ArrayList<>();
+        load(names, entries);
+
+        NAMES = names.toArray(new String[0]);
+        ENTRY_RULE = new byte[entries.size()];
+        ENTRY_POSITION = new byte[entries.size()];
+        ENTRY_TABLE = new int[entries.size()][];
+        for (int i = 0; i < entries.size(); i++) {
+            int[] entry = entries.get(i);
+            ENTRY_RULE[i] = (byte) entry[0];
+            ENTRY_POSITION[i] = (byte) entry[1];
+            ENTRY_TABLE[i] = Arrays.copyOfRange(entry, 2, entry.length);
+        }
+    }
+
+    private ShenSha() {
+    }
+
+    /**
+     * 计算八字命中的神煞
+     *
+     * @return 位集，第i位为1表示命中第i条规则，用 {@link #names(long)} 转为名称
+     */
+    public static long evaluate(GanZhi ganZhi) {
+        int[] value = new int[8];
+        int[] bit = new int[8];
+        for (int pillar = 0; pillar < 4; pillar++) {
+            value[pillar] = ganZhi.stem(pillar);
+            bit[pillar] = 1 << (STEM_BIT_OFFSET + value[pillar]);
+            value[pillar + 4] = ganZhi.branch(pillar);
+            bit[pillar + 4] = 1 << value[pillar + 4];
+        }
+
+        // 每个位置之外其余七个干支的位掩码（前缀或 + 后缀或）
+        int[] others = new int[8];
+        int prefix = 0;
+        for (int i = 0; i < 8; i++) {
+            others[i] = prefix;
+            prefix |= bit[i];
+        }
+        int suffix = 0;
+        for (int i = 7; i >= 0; i--) {
+            others[i] |= suffix;
+            suffix |= bit[i];
+        }
+
+        long result = 0L;
+        for (int e = 0; e < ENTRY_TABLE.length; e++) {
+            int position = ENTRY_POSITION[e];
+            int hit = others[position] & ENTRY_TABLE[e][value[position]];
+            result |= ((-(long) hit) >>> 63) << ENTRY_RULE[e];
+        }
+        return result;
+    }
+
+    /**
+     * 位集转神煞名称，按规则表顺序
+     */
+    public static List<String> names(long bits) {
+        List<String> result = new ArrayList<>(Long.bitCount(bits));
+        for (long rest = bits; rest != 0; rest &= rest - 1) {
+            result.add(NAMES[Long.numberOfTrailingZeros(rest)]);
+        }
+        return result;
+    }
+
+    /**
+     * 神煞名称
+     */
+    public static String nameOf(int rule) {
+        return NAMES[rule];
+    }
+
+    /**
+     * 规则条数
+     */
+    public static int size() {
+        return NAMES.length;
+    }
+
+    private static void load(List<String> names, List<int[]> entries) {
+        try (InputStream in = ShenSha.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("神煞规则资源不存在：" + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length < 3) {
+                    throw new IllegalStateException("神煞规则格式错误：" + line);
+                }
+                int rule = names.size();
+                if (rule >= MAX_RULES) {
+                    throw new IllegalStateException("神煞规则超过" + MAX_RULES + "条");
+                }
+                names.add(parts[0]);
+                for (String key : parts[1].split(",")) {
+                    int position = POSITIONS.indexOf(key);
+                    if (position < 0) {
+                        throw new IllegalStateException("神煞规则查法无法识别：" + parts[0] + " " + key);
+                    }
+                    entries.add(compile(parts, rule, position));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载神煞规则失败", e);
+        }
+    }
+
+    /**
+     * 编译一种查法，返回 [规则序号, 查法位置, 查表...]
+     */
+    private static int[] compile(String[] parts, int rule, int position) {
+        boolean stemKey = position < 4;
+        int[] entry = new int[2 + (stemKey ? 10 : 12)];
+        entry[0] = rule;
+        entry[1] = position;
+        for (int i = 2; i < parts.length; i++) {
+            String[] mapping = parts[i].split("=");
+            if (mapping.length != 2) {
+                throw new IllegalStateException("神煞规则映射格式错误：" + parts[0] + " " + parts[i]);
+            }
+            int targetMask = 0;
+            for (int j = 0; j < mapping[1].length(); j++) {
+                targetMask |= bitOf(mapping[1].substring(j, j + 1), parts[0]);
+            }
+            for (int j = 0; j < mapping[0].length(); j++) {
+                String key = mapping[0].substring(j, j + 1);
+                int ordinal = indexOf(stemKey ? GanZhiCycle.TIAN_GAN : GanZhiCycle.DI_ZHI, key);
+                if (ordinal < 0) {
+                    throw new IllegalStateException("神煞规则键与查法不符：" + parts[0] + " " + key);
+                }
+                entry[2 + ordinal] |= targetMask;
+            }
+        }
+        return entry;
+    }
+
+    private static int bitOf(String ganOrZhi, String rule) {
+        int branch = indexOf(GanZhiCycle.DI_ZHI, ganOrZhi);
+        if (branch >= 0) {
+            return 1 << branch;
+        }
+        int stem = indexOf(GanZhiCycle.TIAN_GAN, ganOrZhi);
+        if (stem >= 0) {
+            return 1 << (STEM_BIT_OFFSET + stem);
+        }
+        throw new IllegalStateException("神煞规则目标无法识别：" + rule + " " + ganOrZhi);
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
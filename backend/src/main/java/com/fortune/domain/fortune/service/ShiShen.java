@@ -0,0 +1,61 @@
+package com.fortune.domain.fortune.service;
+
+/**
+ * 十神关系表
+ *
+ * 以日主（日干）为"我"：同我者比劫，我生者食伤，我克者财，克我者官杀，生我者印，
+ * 阴阳相同取偏（比肩、食神、偏财、七杀、偏印），相异取正。
+ * 日主×天干（10×10）、日主×地支本气（10×12）两张表在类加载时算好，查表即得。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class ShiShen {
+
+    /**
+     * 十神名称，序号 = 五行关系 * 2 + (阴阳相异 ? 1 : 0)
+     */
+    public static final String[] NAMES = {
+        "比肩", "劫财", "食神", "伤官", "偏财", "正财", "七杀", "正官", "偏印", "正印"
+    };
+
+    private static final byte[][] STEM_TABLE = new byte[10][10];
+
+    private static final byte[][] BRANCH_TABLE = new byte[10][12];
+
+    static {
+        for (int dayMaster = 0; dayMaster < 10; dayMaster++) {
+            for (int stem = 0; stem < 10; stem++) {
+                int relation = Math.floorMod(BaZiEngine.STEM_WU_XING[stem] - BaZiEngine.STEM_WU_XING[dayMaster], 5);
+                STEM_TABLE[dayMaster][stem] = (byte) (relation * 2 + ((stem ^ dayMaster) & 1));
+            }
+            for (int branch = 0; branch < 12; branch++) {
+                BRANCH_TABLE[dayMaster][branch] = STEM_TABLE[dayMaster][CangGan.STEMS[branch][0]];
+            }
+        }
+    }
+
+    private ShiShen() {
+    }
+
+    /**
+     * 天干相对日主的十神序号
+     */
+    public static int ofStem(int dayMaster, int stem) {
+        return STEM_TABLE[dayMaster][stem];
+    }
+
+    /**
+     * 地支（取本气）相对日主的十神序号
+     */
+    public static int ofBranch(int dayMaster, int branch) {
+        return BRANCH_TABLE[dayMaster][branch];
+    }
+
+    /**
+     * 十神名称
+     */
+    public static String name(int shiShen) {
+        return NAMES[shiShen];
+    }
+}
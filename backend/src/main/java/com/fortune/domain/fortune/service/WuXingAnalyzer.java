@@ -0,0 +1,236 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.WuXingAnalysis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 五行分析引擎
+ *
+ * 明面个数按八字天干、地支本气统计；力量值在此基础上计入地支藏干（本气、中气、余气按权重分配），
+ * 再按月令旺相休囚死折算。全部在五个int计数上完成，只在组装结果时分配对象。
+ * 同时按 {@link ShiShen} 查表给出四柱十神，并以帮身力量占比判断日主强弱。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class WuXingAnalyzer {
+
+    /**
+     * 天干力量（与一个地支的藏干合计相同）
+     */
+    private static final int STEM_WEIGHT = 10;
+
+    /**
+     * 月令系数（百分比，折算时除以10，使天干平令时计100且不丢失余气的零头），下标为 (五行 - 月令五行) mod 5：
+     * 0旺（同令） 1相（令生） 2死（令克） 3囚（克令） 4休（生令）
+     */
+    private static final int[] SEASON_FACTOR = {150, 120, 60, 80, 100};
+
+    private static final String[] SEASON_NAMES = {"旺", "相", "死", "囚", "休"};
+
+    /**
+     * 力量占比达到该百分比视为过旺（均分为20%）
+     */
+    private static final int EXCESSIVE_PERCENT = 30;
+
+    /**
+     * 帮身力量占比达到该值为身强，不超过 WEAK_PERCENT 为身弱，其间为中和（五行均分时帮身占40%）
+     */
+    private static final int STRONG_PERCENT = 50;
+
+    private static final int WEAK_PERCENT = 35;
+
+    /**
+     * 藏干十神文本，按 [日主天干][地支] 预先拼好，分析时直接取用
+     */
+    private static final String[][] HIDDEN_SHI_SHEN = new String[10][12];
+
+    /**
+     * 日主文本，如"甲木"
+     */
+    private static final String[] DAY_MASTER_NAMES = new String[10];
+
+    static {
+        for (int dayMaster = 0; dayMaster < 10; dayMaster++) {
+            DAY_MASTER_NAMES[dayMaster] = GanZhiCycle.TIAN_GAN[dayMaster] + BaZiEngine.WU_XING[BaZiEngine.STEM_WU_XING[dayMaster]];
+            for (int branch = 0; branch < 12; branch++) {
+                HIDDEN_SHI_SHEN[dayMaster][branch] = formatHidden(dayMaster, branch);
+            }
+        }
+    }
+
+    private WuXingAnalyzer() {
+    }
+
+    /**
+     * 五行分析
+     */
+    public static WuXingAnalysis analyze(GanZhi ganZhi) {
+        int[] count = new int[5];
+        for (int pillar = 0; pillar < 4; pillar++) {
+            count[BaZiEngine.STEM_WU_XING[ganZhi.stem(pillar)]]++;
+            count[BaZiEngine.BRANCH_WU_XING[ganZhi.branch(pillar)]]++;
+        }
+
+        int[] strength = strength(ganZhi);
+        int season = BaZiEngine.BRANCH_WU_XING[ganZhi.branch(1)];
+        int total = 0;
+        int primary = 0;
+        for (int i = 0; i < 5; i++) {
+            total += strength[i];
+            if (strength[i] > strength[primary]) {
+                primary = i;
+            }
+        }
+
+        int deviation = 0;
+        for (int i = 0; i < 5; i++) {
+            deviation += Math.abs(strength[i] * 5 - total);
+        }
+
+        // 帮身力量：与日主同五行（比劫）及生日主的五行（印）
+        int dayMaster = ganZhi.getDayMaster();
+        int dayWuXing = BaZiEngine.STEM_WU_XING[dayMaster];
+        int support = total == 0 ? 0
+                      : (strength[dayWuXing] + strength[(dayWuXing + 4) % 5]) * 100 / total;
+
+        List<String> stemShiShen = new ArrayList<>(4);
+        List<String> branchShiShen = new ArrayList<>(4);
+        List<String> hiddenShiShen = new ArrayList<>(4);
+        for (int pillar = 0; pillar < 4; pillar++) {
+            int branch = ganZhi.branch(pillar);
+            stemShiShen.add(pillar == 2 ? "日主" : ShiShen.name(ShiShen.ofStem(dayMaster, ganZhi.stem(pillar))));
+            branchShiShen.add(ShiShen.name(ShiShen.ofBranch(dayMaster, branch)));
+            hiddenShiShen.add(HIDDEN_SHI_SHEN[dayMaster][branch]);
+        }
+
+        Map<String, Integer> wuXingCount = new LinkedHashMap<>(8);
+        Map<String, Integer> wuXingStrength = new LinkedHashMap<>(8);
+        List<String> lacking = new ArrayList<>(5);
+        List<String> excessive = new ArrayList<>(5);
+        for (int i = 0; i < 5; i++) {
+            String name = BaZiEngine.WU_XING[i];
+            wuXingCount.put(name, count[i]);
+            wuXingStrength.put(name, strength[i]);
+            if (count[i] == 0) {
+                lacking.add(name);
+            }
+            if (strength[i] * 100 >= total * EXCESSIVE_PERCENT) {
+                excessive.add(name);
+            }
+        }
+
+        return WuXingAnalysis.builder()
+                .wuXingCount(wuXingCount)
+                .wuXingStrength(wuXingStrength)
+                .primaryWuXing(BaZiEngine.WU_XING[primary])
+                .lackingWuXing(lacking)
+                .excessiveWuXing(excessive)
+                .balanceScore(balanceScore(deviation, total))
+                .dayMaster(DAY_MASTER_NAMES[dayMaster])
+                .dayMasterSupport(support)
+                .dayMasterStrength(strengthVerdict(support))
+                .stemShiShen(stemShiShen)
+                .branchShiShen(branchShiShen)
+                .hiddenShiShen(hiddenShiShen)
+                .description(describe(dayMaster, season, support, primary, lacking, excessive))
+                .build();
+    }
+
+    /**
+     * 五行力量：天干与地支藏干按权重累加，再按月令旺相休囚死折算
+     *
+     * @return 按五行序号排列的力量值
+     */
+    public static int[] strength(GanZhi ganZhi) {
+        int[] strength = new int[5];
+        for (int pillar = 0; pillar < 4; pillar++) {
+            strength[BaZiEngine.STEM_WU_XING[ganZhi.stem(pillar)]] += STEM_WEIGHT;
+            int branch = ganZhi.branch(pillar);
+            byte[] hidden = CangGan.STEMS[branch];
+            byte[] weights = CangGan.WEIGHTS[branch];
+            for (int i = 0; i < hidden.length; i++) {
+                strength[BaZiEngine.STEM_WU_XING[hidden[i]]] += weights[i];
+            }
+        }
+
+        int season = BaZiEngine.BRANCH_WU_XING[ganZhi.branch(1)];
+        for (int i = 0; i < 5; i++) {
+            strength[i] = strength[i] * SEASON_FACTOR[seasonState(i, season)] / 10;
+        }
+        return strength;
+    }
+
+    /**
+     * 日主强弱：帮身力量占比
+     */
+    public static String strengthVerdict(int supportPercent) {
+        if (supportPercent >= STRONG_PERCENT) {
+            return "身强";
+        }
+        if (supportPercent <= WEAK_PERCENT) {
+            return "身弱";
+        }
+        return "中和";
+    }
+
+    /**
+     * 五行在月令下的旺衰状态下标，见 SEASON_FACTOR
+     */
+    public static int seasonState(int wuXing, int seasonWuXing) {
+        return Math.floorMod(wuXing - seasonWuXing, 5);
+    }
+
+    /**
+     * 平衡度：各五行力量与均值的绝对偏差之和，按最不均衡情形（全部集中于一行，偏差为总量的1.6倍）
+     * 归一化到0-100，完全均衡为100
+     *
+     * @param deviation 以5倍力量计的偏差和 Σ|5·s<sub>i</sub> - total|
+     */
+    private static int balanceScore(int deviation, int total) {
+        if (total == 0) {
+            return 0;
+        }
+        // Σ|s_i - total/5| / (1.6 * total) = deviation / (8 * total)
+        return 100 - (int) Math.round(deviation * 100.0 / (8.0 * total));
+    }
+
+    /**
+     * 藏干十神，如"丙七杀 戊偏印 庚比肩"
+     */
+    private static String formatHidden(int dayMaster, int branch) {
+        byte[] hidden = CangGan.STEMS[branch];
+        StringBuilder sb = new StringBuilder(hidden.length * 4);
+        for (int i = 0; i < hidden.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(GanZhiCycle.TIAN_GAN[hidden[i]]).append(ShiShen.name(ShiShen.ofStem(dayMaster, hidden[i])));
+        }
+        return sb.toString();
+    }
+
+    private static String describe(int dayMaster, int season, int support, int primary,
+                                   List<String> lacking, List<String> excessive) {
+        int dayWuXing = BaZiEngine.STEM_WU_XING[dayMaster];
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("日主").append(GanZhiCycle.TIAN_GAN[dayMaster])
+          .append(BaZiEngine.WU_XING[dayWuXing])
+          .append("，生于").append(BaZiEngine.WU_XING[season]).append("令，日主")
+          .append(SEASON_NAMES[seasonState(dayWuXing, season)]).append("，").append(strengthVerdict(support))
+          .append("；五行以").append(BaZiEngine.WU_XING[primary]).append("最旺");
+        if (!excessive.isEmpty()) {
+            sb.append("，").append(String.join("、", excessive)).append("偏旺");
+        }
+        if (!lacking.isEmpty()) {
+            sb.append("，缺").append(String.join("、", lacking));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,376 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 择日
+ *
+ * 一天的得分只取决于当日日柱和月令（月支）：建除十二值按用途定宜忌，当日地支与本人年支（生肖）、日支（夫妻宫）
+ * 论合冲刑害，当日天干与日主论五合，当日干支五行补到本人所缺五行加分。
+ * 创建时按本人八字和用途把 60日柱 × 12月支 的得分全部算好，扫描日期时每天只需一次节气查找和一次查表。
+ *
+ * 日期区间按30天分块并行扫描，各块保留本块前N名；已知的第N名得分作为门槛在各块间共享，
+ * 低于门槛的日子不入堆，整块的得分上限（按块内月支取表中最大值）低于门槛时整块跳过。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class ZeRi {
+
+    private static final String RESOURCE = "/rules/ze-ri.txt";
+
+    /**
+     * 建除十二值，下标为 (日支 - 月支) mod 12
+     */
+    public static final String[] OFFICERS = {"建", "除", "满", "平", "定", "执", "破", "危", "成", "收", "开", "闭"};
+
+    /**
+     * 每块天数
+     */
+    private static final int CHUNK_DAYS = 30;
+
+    private static final int BASE_SCORE = 60;
+
+    private static final int OFFICER_GOOD = 20;
+
+    private static final int OFFICER_BAD = -30;
+
+    /**
+     * 当日地支与年支（生肖）：冲、合、刑害
+     */
+    private static final int YEAR_CHONG = -40;
+
+    private static final int YEAR_HE = 10;
+
+    private static final int YEAR_XING_HAI = -10;
+
+    /**
+     * 当日地支与日支：冲、合、刑害
+     */
+    private static final int DAY_CHONG = -20;
+
+    private static final int DAY_HE = 15;
+
+    private static final int DAY_XING_HAI = -8;
+
+    /**
+     * 当日天干与日主五合
+     */
+    private static final int STEM_HE = 10;
+
+    /**
+     * 当日干、支各补一项所缺五行
+     */
+    private static final int LACK_FILL = 5;
+
+    /**
+     * HeHun 关系位
+     */
+    private static final int BIT_HE = 1 << 1;
+
+    private static final int BIT_CHONG = 1 << 2;
+
+    private static final int BIT_XING_HAI = (1 << 3) | (1 << 4);
+
+    private static final String[] PURPOSE_NAMES;
+
+    private static final Map<String, Integer> PURPOSE_INDEX = new HashMap<>(32);
+
+    /**
+     * 各用途宜、忌的建除位掩码
+     */
+    private static final int[] GOOD_OFFICERS;
+
+    private static final int[] BAD_OFFICERS;
+
+    static {
+        List<String> names = new ArrayList<>();
+        List<int[]> masks = new ArrayList<>();
+        load(names, masks);
+        PURPOSE_NAMES = names.toArray(new String[0]);
+        GOOD_OFFICERS = new int[names.size()];
+        BAD_OFFICERS = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            GOOD_OFFICERS[i] = masks.get(i)[0];
+            BAD_OFFICERS[i] = masks.get(i)[1];
+        }
+    }
+
+    private final GanZhi chart;
+
+    private final int purpose;
+
+    /**
+     * 本人所缺五行位掩码
+     */
+    private final int lackMask;
+
+    /**
+     * 得分表，下标为 [日柱甲子序号][月支]
+     */
+    private final int[][] scores = new int[60][12];
+
+    /**
+     * 各月支下的最高得分
+     */
+    private final int[] maxByMonthBranch = new int[12];
+
+    private ZeRi(GanZhi chart, int purpose) {
+        this.chart = chart;
+        this.purpose = purpose;
+        this.lackMask = BaZiEngine.lackMask(BaZiEngine.countWuXing(chart));
+        for (int monthBranch = 0; monthBranch < 12; monthBranch++) {
+            int max = Integer.MIN_VALUE;
+            for (int jiaZi = 0; jiaZi < 60; jiaZi++) {
+                int score = score(jiaZi, monthBranch, null);
+                scores[jiaZi][monthBranch] = score;
+                max = Math.max(max, score);
+            }
+            maxByMonthBranch[monthBranch] = max;
+        }
+    }
+
+    /**
+     * 按本人八字和用途创建
+     *
+     * @param purpose 用途名称或别名，如"嫁娶"、"move"
+     * @throws IllegalArgumentException 用途无法识别
+     */
+    public static ZeRi of(GanZhi chart, String purpose) {
+        Integer index = purpose == null ? null : PURPOSE_INDEX.get(purpose.trim().toLowerCase());
+        if (index == null) {
+            throw new IllegalArgumentException("择日用途无法识别：" + purpose + "，可选：" + String.join("、", PURPOSE_NAMES));
+        }
+        return new ZeRi(chart, index);
+    }
+
+    /**
+     * 用途名称
+     */
+    public String getPurpose() {
+        return PURPOSE_NAMES[purpose];
+    }
+
+    /**
+     * 某日得分
+     */
+    public int score(LocalDate date) {
+        return scores[GanZhiCycle.dayJiaZi(date.toEpochDay())][monthBranchOf(date.toEpochDay())];
+    }
+
+    /**
+     * 某日建除
+     */
+    public String officerOf(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        return OFFICERS[Math.floorMod(GanZhiCycle.dayJiaZi(epochDay) % 12 - monthBranchOf(epochDay), 12)];
+    }
+
+    /**
+     * 某日得分的依据，如["成日，宜嫁娶", "日支与日支六合"]
+     */
+    public List<String> reasonsOf(LocalDate date) {
+        List<String> reasons = new ArrayList<>(6);
+        long epochDay = date.toEpochDay();
+        score(GanZhiCycle.dayJiaZi(epochDay), monthBranchOf(epochDay), reasons);
+        return reasons;
+    }
+
+    /**
+     * 在 [from, to] 中选出得分最高的 top 天，按得分降序，同分按日期先后
+     */
+    public List<LocalDate> select(LocalDate from, LocalDate to, int top) {
+        long first = from.toEpochDay();
+        int days = (int) (to.toEpochDay() - first + 1);
+        if (days <= 0 || top <= 0) {
+            return new ArrayList<>();
+        }
+        int chunks = (days + CHUNK_DAYS - 1) / CHUNK_DAYS;
+        AtomicInteger threshold = new AtomicInteger(Integer.MIN_VALUE);
+
+        List<Long> merged = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scanChunk(first, chunk * CHUNK_DAYS, Math.min(days, (chunk + 1) * CHUNK_DAYS),
+                                             top, threshold))
+                .flatMap(List::stream)
+                .sorted((a, b) -> Long.compare(b, a))
+                .limit(top)
+                .collect(Collectors.toList());
+
+        List<LocalDate> result = new ArrayList<>(merged.size());
+        for (long key : merged) {
+            result.add(LocalDate.ofEpochDay(first + (Integer.MAX_VALUE - (int) (key & 0xffffffffL))));
+        }
+        return result;
+    }
+
+    /**
+     * 扫描 [from, to) 天（相对 first 的偏移），返回本块前 top 名的键：得分<<32 | (MAX - 偏移)
+     */
+    private List<Long> scanChunk(long first, int from, int to, int top, AtomicInteger threshold) {
+        int firstBranch = monthBranchOf(first + from);
+        int lastBranch = monthBranchOf(first + to - 1);
+        int bound = Math.max(maxByMonthBranch[firstBranch], maxByMonthBranch[lastBranch]);
+        // 一块至多跨两个节令月；跨度更大时不做整块剪枝
+        if (bound < threshold.get() && Math.floorMod(lastBranch - firstBranch, 12) <= 1) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Long> heap = new PriorityQueue<>(top + 1);
+        for (int offset = from; offset < to; offset++) {
+            long epochDay = first + offset;
+            int score = scores[GanZhiCycle.dayJiaZi(epochDay)][monthBranchOf(epochDay)];
+            if (score < threshold.get()) {
+                continue;
+            }
+            heap.add(((long) score << 32) | (Integer.MAX_VALUE - offset));
+            if (heap.size() > top) {
+                heap.poll();
+            }
+            if (heap.size() == top) {
+                int nth = (int) (heap.peek() >> 32);
+                threshold.accumulateAndGet(nth, Math::max);
+            }
+        }
+        return new ArrayList<>(heap);
+    }
+
+    /**
+     * 计算一个日柱在某月支下的得分，reasons 不为空时同时记录依据
+     */
+    private int score(int jiaZi, int monthBranch, List<String> reasons) {
+        int stem = jiaZi % 10;
+        int branch = jiaZi % 12;
+        int score = BASE_SCORE;
+
+        int officer = Math.floorMod(branch - monthBranch, 12);
+        if ((GOOD_OFFICERS[purpose] & (1 << officer)) != 0) {
+            score += OFFICER_GOOD;
+            note(reasons, OFFICERS[officer] + "日，宜" + PURPOSE_NAMES[purpose]);
+        } else if ((BAD_OFFICERS[purpose] & (1 << officer)) != 0) {
+            score += OFFICER_BAD;
+            note(reasons, OFFICERS[officer] + "日，忌" + PURPOSE_NAMES[purpose]);
+        }
+
+        int yearBranch = chart.branch(0);
+        int yearRelations = HeHun.branchRelations(branch, yearBranch);
+        if ((yearRelations & BIT_CHONG) != 0) {
+            score += YEAR_CHONG;
+            note(reasons, "日冲生肖（属" + GanZhiCycle.SHENG_XIAO[yearBranch] + "）");
+        } else if ((yearRelations & BIT_HE) != 0) {
+            score += YEAR_HE;
+            note(reasons, "日支与生肖六合");
+        } else if ((yearRelations & BIT_XING_HAI) != 0) {
+            score += YEAR_XING_HAI;
+            note(reasons, "日支与生肖相刑或相害");
+        }
+
+        int dayRelations = HeHun.branchRelations(branch, chart.branch(2));
+        if ((dayRelations & BIT_CHONG) != 0) {
+            score += DAY_CHONG;
+            note(reasons, "冲本人日支");
+        } else if ((dayRelations & BIT_HE) != 0) {
+            score += DAY_HE;
+            note(reasons, "与本人日支六合");
+        } else if ((dayRelations & BIT_XING_HAI) != 0) {
+            score += DAY_XING_HAI;
+            note(reasons, "与本人日支相刑或相害");
+        }
+
+        if (Math.abs(stem - chart.getDayMaster()) == 5) {
+            score += STEM_HE;
+            note(reasons, "日干与日主五合");
+        }
+
+        int stemWuXing = BaZiEngine.STEM_WU_XING[stem];
+        int branchWuXing = BaZiEngine.BRANCH_WU_XING[branch];
+        if ((lackMask & (1 << stemWuXing)) != 0) {
+            score += LACK_FILL;
+            note(reasons, "天干" + BaZiEngine.WU_XING[stemWuXing] + "补所缺");
+        }
+        if ((lackMask & (1 << branchWuXing)) != 0) {
+            score += LACK_FILL;
+            note(reasons, "地支" + BaZiEngine.WU_XING[branchWuXing] + "补所缺");
+        }
+        return score;
+    }
+
+    private static void note(List<String> reasons, String reason) {
+        if (reasons != null) {
+            reasons.add(reason);
+        }
+    }
+
+    /**
+     * 某日（取正午）所在节令月的月支
+     */
+    private static int monthBranchOf(long epochDay) {
+        long noon = epochDay * 1440 + 720 - 480;
+        return SolarTerms.monthJiaZi(SolarTerms.indexOf(noon)) % 12;
+    }
+
+    private static void load(List<String> names, List<int[]> masks) {
+        try (InputStream in = ZeRi.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("择日用途资源不存在：" + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 4 || !parts[2].startsWith("宜=") || !parts[3].startsWith("忌=")) {
+                    throw new IllegalStateException("择日用途格式错误：" + line);
+                }
+                int index = names.size();
+                names.add(parts[0]);
+                PURPOSE_INDEX.put(parts[0], index);
+                if (!"-".equals(parts[1])) {
+                    for (String alias : parts[1].split(",")) {
+                        PURPOSE_INDEX.put(alias.toLowerCase(), index);
+                    }
+                }
+                masks.add(new int[]{officerMask(parts[2].substring(2), line), officerMask(parts[3].substring(2), line)});
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载择日用途失败", e);
+        }
+    }
+
+    private static int officerMask(String officers, String line) {
+        int mask = 0;
+        for (int i = 0; i < officers.length(); i++) {
+            String officer = officers.substring(i, i + 1);
+            int index = -1;
+            for (int j = 0; j < OFFICERS.length; j++) {
+                if (OFFICERS[j].equals(officer)) {
+                    index = j;
+                }
+            }
+            if (index < 0) {
+                throw new IllegalStateException("择日用途建除无法识别：" + line);
+            }
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+}
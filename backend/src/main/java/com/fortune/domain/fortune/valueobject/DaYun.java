@@ -0,0 +1,49 @@
+package com.fortune.domain.fortune.valueobject;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 大运值对象（每步十年）
+ * 
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DaYun {
+    
+    /**
+     * 第几步大运，从1开始
+     */
+    private Integer index;
+    
+    /**
+     * 大运干支
+     */
+    private String ganZhi;
+    
+    /**
+     * 起始周岁
+     */
+    private Integer startAge;
+    
+    /**
+     * 起始年份
+     */
+    private Integer startYear;
+    
+    /**
+     * 结束年份（含）
+     */
+    private Integer endYear;
+    
+    /**
+     * 本步大运内的十个流年
+     */
+    private List<LiuNian> liuNian;
+}
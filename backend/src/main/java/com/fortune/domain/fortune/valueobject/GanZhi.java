@@ -1,59 +1,121 @@
 package com.fortune.domain.fortune.valueobject;
 
-import lombok.Data;
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
 
 /**
  * 天干地支值对象
- * 
+ *
+ * 四柱以六十甲子序号（byte）保存，天干序号为 序号%10，地支序号为 序号%12；
+ * 柱名和完整八字字符串在首次读取时才生成。
+ *
+ * 完整八字可编码为一个int（见 {@link #code()}），用于入库、建索引和作缓存键：
+ * bit24-27 日干，bit18-23 日柱，bit12-17 年柱，bit6-11 月柱，bit0-5 时柱。
+ * 日干放在最高位，同一日主、同一日柱的编码各自落在一个连续区间内，可直接按范围查询。
+ *
  * @author fortune
  * @since 2024-01-01
  */
-@Data
 @NoArgsConstructor
-@AllArgsConstructor
+@EqualsAndHashCode(of = {"year", "month", "day", "hour"})
 public class GanZhi {
-    
+
+    private static final byte UNKNOWN = -1;
+
     /**
-     * 年柱
+     * 四柱不完整时的编码
      */
-    private String yearPillar;
-    
+    public static final int UNKNOWN_CODE = -1;
+
+    private static final int DAY_MASTER_SHIFT = 24;
+
+    private static final int DAY_SHIFT = 18;
+
+    private static final int YEAR_SHIFT = 12;
+
+    private static final int MONTH_SHIFT = 6;
+
+    private static final int PILLAR_MASK = 0x3f;
+
     /**
-     * 月柱
+     * 年柱甲子序号
      */
-    private String monthPillar;
-    
+    private byte year = UNKNOWN;
+
     /**
-     * 日柱
+     * 月柱甲子序号
      */
-    private String dayPillar;
-    
+    private byte month = UNKNOWN;
+
     /**
-     * 时柱
+     * 日柱甲子序号
      */
-    private String hourPillar;
-    
+    private byte day = UNKNOWN;
+
     /**
-     * 格式化显示完整八字
+     * 时柱甲子序号
      */
-    public String format() {
-        return String.format("%s %s %s %s", yearPillar, monthPillar, dayPillar, hourPillar);
+    private byte hour = UNKNOWN;
+
+    /**
+     * 完整八字（延迟生成）
+     */
+    private String formatted;
+
+    /**
+     * 按甲子序号创建
+     */
+    public static GanZhi of(int year, int month, int day, int hour) {
+        GanZhi ganZhi = new GanZhi();
+        ganZhi.year = (byte) year;
+        ganZhi.month = (byte) month;
+        ganZhi.day = (byte) day;
+        ganZhi.hour = (byte) hour;
+        return ganZhi;
     }
-    
+
     /**
      * 创建天干地支
      */
     public static GanZhi of(String yearPillar, String monthPillar, String dayPillar, String hourPillar) {
-        GanZhi ganZhi = new GanZhi();
-        ganZhi.yearPillar = yearPillar;
-        ganZhi.monthPillar = monthPillar;
-        ganZhi.dayPillar = dayPillar;
-        ganZhi.hourPillar = hourPillar;
-        return ganZhi;
+        return of(GanZhiCycle.indexOf(yearPillar), GanZhiCycle.indexOf(monthPillar),
+                  GanZhiCycle.indexOf(dayPillar), GanZhiCycle.indexOf(hourPillar));
+    }
+
+    /**
+     * 由八字编码还原
+     *
+     * @throws IllegalArgumentException 编码无效
+     */
+    public static GanZhi ofCode(int code) {
+        int day = (code >>> DAY_SHIFT) & PILLAR_MASK;
+        int year = (code >>> YEAR_SHIFT) & PILLAR_MASK;
+        int month = (code >>> MONTH_SHIFT) & PILLAR_MASK;
+        int hour = code & PILLAR_MASK;
+        if (code < 0 || day >= 60 || year >= 60 || month >= 60 || hour >= 60
+                || (code >>> DAY_MASTER_SHIFT) != day % 10) {
+            throw new IllegalArgumentException("八字编码无效：" + code);
+        }
+        return of(year, month, day, hour);
     }
-    
+
+    /**
+     * 日主为某天干的八字编码区间下限（含），上限（不含）为 minCodeOfDayMaster(stem + 1)
+     */
+    public static int minCodeOfDayMaster(int stem) {
+        return stem << DAY_MASTER_SHIFT;
+    }
+
+    /**
+     * 计算公历日期的日柱，基于儒略日数，常数时间
+     */
+    public static String dayPillarOf(LocalDate date) {
+        return GanZhiCycle.name(GanZhiCycle.dayJiaZi(date.toEpochDay()));
+    }
+
     /**
      * 从字符串解析
      */
@@ -61,17 +123,128 @@ public class GanZhi {
         if (ganZhiStr == null || ganZhiStr.trim().isEmpty()) {
             return new GanZhi();
         }
-        
+
         String[] parts = ganZhiStr.trim().split("\\s+");
         if (parts.length >= 4) {
-            GanZhi ganZhi = new GanZhi();
-            ganZhi.yearPillar = parts[0];
-            ganZhi.monthPillar = parts[1];
-            ganZhi.dayPillar = parts[2];
-            ganZhi.hourPillar = parts[3];
-            return ganZhi;
+            return of(parts[0], parts[1], parts[2], parts[3]);
         }
-        
+
         return new GanZhi();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 四柱是否完整
+     */
+    public boolean isComplete() {
+        return year >= 0 && month >= 0 && day >= 0 && hour >= 0;
+    }
+
+    public int getYearJiaZi() {
+        return year;
+    }
+
+    public int getMonthJiaZi() {
+        return month;
+    }
+
+    public int getDayJiaZi() {
+        return day;
+    }
+
+    public int getHourJiaZi() {
+        return hour;
+    }
+
+    /**
+     * 八字编码，四柱不完整时返回 {@link #UNKNOWN_CODE}
+     */
+    public int code() {
+        if (!isComplete()) {
+            return UNKNOWN_CODE;
+        }
+        return (day % 10) << DAY_MASTER_SHIFT | day << DAY_SHIFT | year << YEAR_SHIFT | month << MONTH_SHIFT | hour;
+    }
+
+    /**
+     * 按柱序取天干序号（0年 1月 2日 3时）
+     */
+    public byte stem(int pillar) {
+        return (byte) (jiaZi(pillar) % 10);
+    }
+
+    /**
+     * 按柱序取地支序号（0年 1月 2日 3时）
+     */
+    public byte branch(int pillar) {
+        return (byte) (jiaZi(pillar) % 12);
+    }
+
+    /**
+     * 日主（日干）序号
+     */
+    public byte getDayMaster() {
+        return (byte) (day % 10);
+    }
+
+    /**
+     * 年柱
+     */
+    public String getYearPillar() {
+        return pillarName(year);
+    }
+
+    /**
+     * 月柱
+     */
+    public String getMonthPillar() {
+        return pillarName(month);
+    }
+
+    /**
+     * 日柱
+     */
+    public String getDayPillar() {
+        return pillarName(day);
+    }
+
+    /**
+     * 时柱
+     */
+    public String getHourPillar() {
+        return pillarName(hour);
+    }
+
+    /**
+     * 格式化显示完整八字
+     */
+    public String format() {
+        if (formatted == null) {
+            formatted = getYearPillar() + " " + getMonthPillar() + " " + getDayPillar() + " " + getHourPillar();
+        }
+        return formatted;
+    }
+
+    private int jiaZi(int pillar) {
+        switch (pillar) {
+            case 0:
+                return year;
+            case 1:
+                return month;
+            case 2:
+                return day;
+            case 3:
+                return hour;
+            default:
+                throw new IllegalArgumentException("柱序超出范围(0-3)：" + pillar);
+        }
+    }
+
+    private static String pillarName(byte jiaZi) {
+        return jiaZi < 0 ? null : GanZhiCycle.name(jiaZi);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,32 @@
+package com.fortune.domain.fortune.valueobject;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 流年值对象
+ * 
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiuNian {
+    
+    /**
+     * 公历年份（干支年以立春为界）
+     */
+    private Integer year;
+    
+    /**
+     * 流年干支
+     */
+    private String ganZhi;
+    
+    /**
+     * 周岁
+     */
+    private Integer age;
+}
@@ -15,6 +15,17 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class LunarDate {
     
+    private static final String[] MONTH_NAMES = {
+        "正月", "二月", "三月", "四月", "五月", "六月",
+        "七月", "八月", "九月", "十月", "十一月", "十二月"
+    };
+    
+    private static final String[] DAY_NAMES = {
+        "初一", "初二", "初三", "初四", "初五", "初六", "初七", "初八", "初九", "初十",
+        "十一", "十二", "十三", "十四", "十五", "十六", "十七", "十八", "十九", "二十",
+        "廿一", "廿二", "廿三", "廿四", "廿五", "廿六", "廿七", "廿八", "廿九", "三十"
+    };
+    
     /**
      * 农历年
      */
@@ -58,6 +69,28 @@ public class LunarDate {
         return String.format("农历%d年%s%d月%d日", year, leapPrefix, month, day);
     }
     
+    /**
+     * 中文格式显示，如"农历1990年闰五月廿一"
+     */
+    public String toChineseString() {
+        String leapPrefix = Boolean.TRUE.equals(isLeapMonth) ? "闰" : "";
+        return "农历" + year + "年" + leapPrefix + MONTH_NAMES[month - 1] + DAY_NAMES[day - 1];
+    }
+    
+    /**
+     * 月份名称，如"闰五月"
+     */
+    public String monthName() {
+        return (Boolean.TRUE.equals(isLeapMonth) ? "闰" : "") + MONTH_NAMES[month - 1];
+    }
+    
+    /**
+     * 日名称，如"廿一"
+     */
+    public String dayName() {
+        return DAY_NAMES[day - 1];
+    }
+    
     /**
      * 创建农历日期
      */
@@ -21,10 +21,15 @@ import java.util.List;
 public class WuXingAnalysis {
     
     /**
-     * 五行统计 (金、木、水、火、土的个数)
+     * 五行统计 (木、火、土、金、水的个数，按天干和地支本气计)
      */
     private Map<String, Integer> wuXingCount;
     
+    /**
+     * 五行力量 (计入地支藏干并按月令旺衰折算，天干平令时计100)
+     */
+    private Map<String, Integer> wuXingStrength;
+    
     /**
      * 主要五行属性
      */
@@ -45,6 +50,36 @@ public class WuXingAnalysis {
      */
     private Integer balanceScore;
     
+    /**
+     * 日主，如"庚金"
+     */
+    private String dayMaster;
+    
+    /**
+     * 日主强弱：身强、中和、身弱
+     */
+    private String dayMasterStrength;
+    
+    /**
+     * 帮身力量（比劫与印）占五行总力量的百分比
+     */
+    private Integer dayMasterSupport;
+    
+    /**
+     * 四柱天干十神（年、月、日、时，日干记为"日主"）
+     */
+    private List<String> stemShiShen;
+    
+    /**
+     * 四柱地支本气十神（年、月、日、时）
+     */
+    private List<String> branchShiShen;
+    
+    /**
+     * 四柱地支藏干十神，如"丙七杀 戊偏印 庚比肩"
+     */
+    private List<String> hiddenShiShen;
+    
     /**
      * 分析描述
      */
@@ -0,0 +1,178 @@
+package com.fortune.infrastructure.cache;
+
+import com.fortune.infrastructure.persistence.mapper.FortuneAnalysisMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI分析结果多级缓存
+ *
+ * 命理分析的提示词只由八字决定，相同八字、相同提示词版本的分析结果可以直接复用。
+ * 第一级为进程内LRU缓存，第二级为Redis，各节点共享；Redis不可用时只用进程内缓存，不影响调用方。
+ * 最后一级为分析结果表 t_fortune_analysis，持久保存线上生成和离线预生成的结果，Redis过期后从表中回填。
+ * 命中率指标：fortune.analysis.cache.requests（tier=local/redis/db，result=hit/miss），
+ * 进程内条目数：fortune.analysis.cache.size。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class AnalysisCache {
+
+    private static final String KEY_PREFIX = "fortune:analysis:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final FortuneAnalysisMapper fortuneAnalysisMapper;
+
+    private final LruCache<String, String> localCache;
+
+    private final Duration redisTtl;
+
+    private final Counter localHits;
+
+    private final Counter localMisses;
+
+    private final Counter redisHits;
+
+    private final Counter redisMisses;
+
+    private final Counter dbHits;
+
+    private final Counter dbMisses;
+
+    public AnalysisCache(StringRedisTemplate redisTemplate, FortuneAnalysisMapper fortuneAnalysisMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${fortune.analysis-cache.local-size:2048}") int localSize,
+                         @Value("${fortune.analysis-cache.redis-ttl-days:30}") int redisTtlDays) {
+        this.redisTemplate = redisTemplate;
+        this.fortuneAnalysisMapper = fortuneAnalysisMapper;
+        this.localCache = new LruCache<>(localSize);
+        this.redisTtl = Duration.ofDays(redisTtlDays);
+        this.localHits = requests(meterRegistry, "local", "hit");
+        this.localMisses = requests(meterRegistry, "local", "miss");
+        this.redisHits = requests(meterRegistry, "redis", "hit");
+        this.redisMisses = requests(meterRegistry, "redis", "miss");
+        this.dbHits = requests(meterRegistry, "db", "hit");
+        this.dbMisses = requests(meterRegistry, "db", "miss");
+        Gauge.builder("fortune.analysis.cache.size", localCache, LruCache::size)
+                .description("进程内AI分析缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 缓存键
+     *
+     * @param promptVersion 提示词版本，提示词模板或模型变化时随之变化，旧结果自然失效
+     * @param chartCode     八字编码
+     */
+    public static String key(String promptVersion, int chartCode) {
+        return KEY_PREFIX + promptVersion + ":" + Integer.toHexString(chartCode);
+    }
+
+    /**
+     * 依次查进程内缓存、Redis和分析表，命中时回填前面各级；都未命中返回null
+     */
+    public String get(String key) {
+        String value = localCache.get(key);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+
+        try {
+            value = redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            log.warn("读取Redis分析缓存失败，key：{}，{}", key, e.getMessage());
+            value = null;
+        }
+        if (value != null) {
+            redisHits.increment();
+            localCache.put(key, value);
+            return value;
+        }
+        redisMisses.increment();
+
+        try {
+            value = fortuneAnalysisMapper.selectContent(key);
+        } catch (DataAccessException e) {
+            log.warn("读取分析表失败，key：{}，{}", key, e.getMessage());
+            value = null;
+        }
+        if (value == null) {
+            dbMisses.increment();
+            return null;
+        }
+        dbHits.increment();
+        localCache.put(key, value);
+        putRedis(key, value);
+        return value;
+    }
+
+    /**
+     * 分析表中是否已有该键，查询失败时返回false
+     */
+    public boolean isPersisted(String key) {
+        try {
+            return fortuneAnalysisMapper.countByKey(key) > 0;
+        } catch (DataAccessException e) {
+            log.warn("查询分析表失败，key：{}，{}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 只查Redis，命中时回填进程内缓存；用于等待其他节点生成结果时轮询，不计入命中率
+     */
+    public String peekShared(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            if (value != null) {
+                localCache.put(key, value);
+            }
+            return value;
+        } catch (DataAccessException e) {
+            log.warn("读取Redis分析缓存失败，key：{}，{}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入各级缓存和分析表，Redis、数据库写入失败只记录日志
+     */
+    public void put(String key, String value) {
+        localCache.put(key, value);
+        putRedis(key, value);
+        try {
+            fortuneAnalysisMapper.upsert(key, value);
+        } catch (DataAccessException e) {
+            log.warn("写入分析表失败，key：{}，{}", key, e.getMessage());
+        }
+    }
+
+    private void putRedis(String key, String value) {
+        try {
+            redisTemplate.opsForValue().set(key, value, redisTtl);
+        } catch (DataAccessException e) {
+            log.warn("写入Redis分析缓存失败，key：{}，{}", key, e.getMessage());
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("fortune.analysis.cache.requests")
+                .description("AI分析缓存查询次数")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
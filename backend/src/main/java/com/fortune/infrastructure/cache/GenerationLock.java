@@ -0,0 +1,103 @@
+package com.fortune.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 跨节点生成锁
+ *
+ * 多个节点同时需要同一份AI分析时，只有取得租约的节点调用DeepSeek，其余节点等待结果写入共享缓存。
+ * 租约以 SET NX PX 获取，带过期时间，持有节点宕机后自动释放；释放时用脚本比对令牌，不会误删别人的租约。
+ * Redis不可用时视为已取得（不加锁），退化为各节点各自调用。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class GenerationLock {
+
+    private static final String KEY_PREFIX = "fortune:generating:";
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Duration lease;
+
+    public GenerationLock(StringRedisTemplate redisTemplate,
+                          @Value("${fortune.deepseek.lock.lease-ms:45000}") long leaseMs) {
+        this.redisTemplate = redisTemplate;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    /**
+     * 尝试取得租约
+     *
+     * @return 取得时返回租约（Redis不可用时返回不加锁的租约），已被其他节点持有时返回null
+     */
+    public Lease tryAcquire(String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, token, lease);
+            return Boolean.TRUE.equals(acquired) ? new Lease(key, token) : null;
+        } catch (DataAccessException e) {
+            log.warn("获取生成锁失败，不加锁继续，key：{}，{}", key, e.getMessage());
+            return new Lease(key, null);
+        }
+    }
+
+    /**
+     * 租约是否仍被持有，Redis不可用时返回false
+     */
+    public boolean isHeld(String key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + key));
+        } catch (DataAccessException e) {
+            log.warn("查询生成锁失败，key：{}，{}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 释放租约，租约已过期或已被他人取得时不做任何事
+     */
+    public void release(Lease lease) {
+        if (lease.token == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(KEY_PREFIX + lease.key), lease.token);
+        } catch (DataAccessException e) {
+            log.warn("释放生成锁失败，等待过期，key：{}，{}", lease.key, e.getMessage());
+        }
+    }
+
+    /**
+     * 生成租约
+     */
+    public static final class Lease {
+
+        private final String key;
+
+        /**
+         * 持有令牌，不加锁时为空
+         */
+        private final String token;
+
+        private Lease(String key, String token) {
+            this.key = key;
+            this.token = token;
+        }
+    }
+}
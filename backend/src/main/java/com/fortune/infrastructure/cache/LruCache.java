@@ -0,0 +1,76 @@
+package com.fortune.infrastructure.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 有界LRU缓存
+ * 
+ * 基于按访问顺序排列的 LinkedHashMap，超过容量时淘汰最久未访问的条目。
+ * 适合缓存排盘等确定性计算结果，所有操作在同一把锁内完成，计算函数在锁外执行。
+ * 
+ * @author fortune
+ * @since 2024-01-01
+ */
+public class LruCache<K, V> {
+    
+    private final int capacity;
+    
+    private final LinkedHashMap<K, V> map;
+    
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0：" + capacity);
+        }
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+    
+    /**
+     * 读取缓存，未命中返回null
+     */
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+    
+    /**
+     * 写入缓存
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+    
+    /**
+     * 读取缓存，未命中时计算并写入；计算在锁外进行，并发未命中时可能重复计算，结果相同
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * 当前条目数
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+    
+    /**
+     * 容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fortune.infrastructure.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 进程内请求合并（single-flight）
+ *
+ * 同一个键同时只执行一次计算：第一个调用方（leader）启动计算并得到它的 CompletableFuture，
+ * 计算期间到达的调用方（follower）挂到同一个 future 上，拿到 leader 的结果或异常。
+ * follower 不占用线程等待，需要同步结果的调用方自行 join。
+ * 计算结束后立即移除，之后的调用重新执行，结果复用交给缓存负责。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 执行或加入同键的进行中计算
+     *
+     * @param loader 启动计算的函数，只由 leader 在调用线程中调用；抛出的异常或返回 future 的异常传给所有等待方
+     * @return 计算结果的 future，各调用方拿到各自的副本，取消或完成副本不影响其他调用方
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        CompletableFuture<V> started;
+        try {
+            started = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            return promise.copy();
+        }
+        started.whenComplete((value, failure) -> {
+            inFlight.remove(key, promise);
+            if (failure != null) {
+                promise.completeExceptionally(unwrap(failure));
+            } else {
+                promise.complete(value);
+            }
+        });
+        return promise.copy();
+    }
+
+    /**
+     * 同步取结果，CompletionException 中的运行时异常原样抛出
+     */
+    public static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 累计合并（未自行计算、直接等待 leader）的调用数
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 当前进行中的计算数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
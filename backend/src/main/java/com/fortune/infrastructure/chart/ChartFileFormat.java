@@ -0,0 +1,100 @@
+package com.fortune.infrastructure.chart;
+
+import com.fortune.domain.fortune.service.BaZiEngine;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.LunarDate;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * 预计算排盘数据文件格式
+ *
+ * 文件头32字节：魔数、版本、记录长度、天数、首日epoch day。
+ * 其后每天12条定长记录（子时至亥时，时辰取中点时刻），记录下标 = 天序号 * 12 + 时辰序号。
+ *
+ * 单条记录16字节：
+ * <pre>
+ *  0-3   年、月、日、时柱甲子序号
+ *  4-5   农历年
+ *  6     农历月（最高位为闰月标志）
+ *  7     农历日
+ *  8     生肖序号
+ *  9     五行缺失位掩码
+ *  10-11 保留
+ *  12-15 五行计数（每4位一个，同 BaZiEngine.countWuXing）
+ * </pre>
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class ChartFileFormat {
+
+    /**
+     * 魔数 "BAZI"
+     */
+    public static final int MAGIC = 0x42415A49;
+
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 32;
+
+    public static final int RECORD_SIZE = 16;
+
+    public static final int RECORDS_PER_DAY = 12;
+
+    /**
+     * 覆盖范围：1900-01-01 至 2100-12-31（节气表截止2100年末）
+     */
+    public static final LocalDate FIRST_DATE = LocalDate.of(1900, 1, 1);
+
+    public static final LocalDate LAST_DATE = LocalDate.of(2100, 12, 31);
+
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_RECORD_SIZE = 8;
+    static final int OFFSET_DAY_COUNT = 12;
+    static final int OFFSET_FIRST_EPOCH_DAY = 16;
+
+    static final int YEAR_PILLAR = 0;
+    static final int LUNAR_YEAR = 4;
+    static final int LUNAR_MONTH = 6;
+    static final int LUNAR_DAY = 7;
+    static final int SHENG_XIAO = 8;
+    static final int LACK_MASK = 9;
+    static final int WU_XING = 12;
+
+    static final int LEAP_FLAG = 0x80;
+
+    private ChartFileFormat() {
+    }
+
+    /**
+     * 写文件头
+     */
+    static void writeHeader(ByteBuffer buffer, long firstEpochDay, int dayCount) {
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        buffer.putInt(OFFSET_VERSION, VERSION);
+        buffer.putInt(OFFSET_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(OFFSET_DAY_COUNT, dayCount);
+        buffer.putLong(OFFSET_FIRST_EPOCH_DAY, firstEpochDay);
+    }
+
+    /**
+     * 在指定偏移处写一条记录
+     */
+    static void writeRecord(ByteBuffer buffer, int offset, GanZhi ganZhi, LunarDate lunarDate) {
+        int wuXingCounts = BaZiEngine.countWuXing(ganZhi);
+        buffer.put(offset + YEAR_PILLAR, (byte) ganZhi.getYearJiaZi());
+        buffer.put(offset + YEAR_PILLAR + 1, (byte) ganZhi.getMonthJiaZi());
+        buffer.put(offset + YEAR_PILLAR + 2, (byte) ganZhi.getDayJiaZi());
+        buffer.put(offset + YEAR_PILLAR + 3, (byte) ganZhi.getHourJiaZi());
+        buffer.putShort(offset + LUNAR_YEAR, lunarDate.getYear().shortValue());
+        buffer.put(offset + LUNAR_MONTH,
+                   (byte) (lunarDate.getMonth() | (Boolean.TRUE.equals(lunarDate.getIsLeapMonth()) ? LEAP_FLAG : 0)));
+        buffer.put(offset + LUNAR_DAY, lunarDate.getDay().byteValue());
+        buffer.put(offset + SHENG_XIAO, ganZhi.branch(0));
+        buffer.put(offset + LACK_MASK, (byte) BaZiEngine.lackMask(wuXingCounts));
+        buffer.putInt(offset + WU_XING, wuXingCounts);
+    }
+}
@@ -0,0 +1,73 @@
+package com.fortune.infrastructure.chart;
+
+import com.fortune.domain.fortune.calendar.LunarCalendar;
+import com.fortune.domain.fortune.service.BaZiEngine;
+import com.fortune.domain.fortune.valueobject.LunarDate;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * 预计算排盘数据文件生成器（构建期运行）
+ *
+ * 对1900-2100年每一天的12个时辰排盘，按 {@link ChartFileFormat} 写入定长记录。
+ * 通过 {@code mvn -P chart-data package} 生成到 target/charts.bin，也可直接运行：
+ * {@code java -cp target/classes com.fortune.infrastructure.chart.ChartFileGenerator <输出路径>}
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+public final class ChartFileGenerator {
+
+    private static final String DEFAULT_OUTPUT = "target/charts.bin";
+
+    private ChartFileGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : DEFAULT_OUTPUT).toAbsolutePath();
+        long start = System.currentTimeMillis();
+        generate(output);
+        System.out.println("排盘数据文件生成完成：" + output + "，大小：" + Files.size(output)
+                           + "字节，耗时：" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * 生成数据文件，先写临时文件再原子替换，正在读旧文件的进程不受影响
+     */
+    public static void generate(Path output) throws IOException {
+        long firstEpochDay = ChartFileFormat.FIRST_DATE.toEpochDay();
+        int dayCount = (int) (ChartFileFormat.LAST_DATE.toEpochDay() - firstEpochDay + 1);
+        long size = ChartFileFormat.HEADER_SIZE
+                    + (long) dayCount * ChartFileFormat.RECORDS_PER_DAY * ChartFileFormat.RECORD_SIZE;
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            ChartFileFormat.writeHeader(buffer, firstEpochDay, dayCount);
+
+            int offset = ChartFileFormat.HEADER_SIZE;
+            for (int day = 0; day < dayCount; day++) {
+                LocalDate date = LocalDate.ofEpochDay(firstEpochDay + day);
+                LunarDate lunarDate = LunarCalendar.fromSolar(date);
+                for (int hourBranch = 0; hourBranch < ChartFileFormat.RECORDS_PER_DAY; hourBranch++) {
+                    ChartFileFormat.writeRecord(buffer, offset, BaZiEngine.calculate(date, hourBranch), lunarDate);
+                    offset += ChartFileFormat.RECORD_SIZE;
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,144 @@
+package com.fortune.infrastructure.chart;
+
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.LunarDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * 预计算排盘数据（内存映射只读）
+ *
+ * 启动时将 {@link ChartFileGenerator} 生成的数据文件映射到内存，排盘的确定性部分
+ * 按 (日期, 时辰) 直接定位记录读取，数据在堆外，同机多个进程共享同一份页缓存。
+ * 未配置 fortune.chart.file 或文件无效时 {@link #find} 一律返回-1，由调用方实时排盘。
+ *
+ * MappedByteBuffer 只做绝对位置读取，不改变 position，可被多线程并发访问。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class PrecomputedChartStore {
+
+    @Value("${fortune.chart.file:}")
+    private String chartFile;
+
+    private MappedByteBuffer buffer;
+
+    private long firstEpochDay;
+
+    private int dayCount;
+
+    @PostConstruct
+    public void open() {
+        if (chartFile == null || chartFile.trim().isEmpty()) {
+            log.info("未配置预计算排盘数据文件，使用实时排盘");
+            return;
+        }
+        Path path = Paths.get(chartFile.trim());
+        if (!Files.isRegularFile(path)) {
+            log.warn("预计算排盘数据文件不存在：{}，使用实时排盘", path);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.capacity() < ChartFileFormat.HEADER_SIZE
+                || mapped.getInt(ChartFileFormat.OFFSET_MAGIC) != ChartFileFormat.MAGIC
+                || mapped.getInt(ChartFileFormat.OFFSET_VERSION) != ChartFileFormat.VERSION
+                || mapped.getInt(ChartFileFormat.OFFSET_RECORD_SIZE) != ChartFileFormat.RECORD_SIZE) {
+                log.warn("预计算排盘数据文件格式不符：{}，使用实时排盘", path);
+                return;
+            }
+            int days = mapped.getInt(ChartFileFormat.OFFSET_DAY_COUNT);
+            long expectedSize = ChartFileFormat.HEADER_SIZE
+                                + (long) days * ChartFileFormat.RECORDS_PER_DAY * ChartFileFormat.RECORD_SIZE;
+            if (days <= 0 || channel.size() != expectedSize) {
+                log.warn("预计算排盘数据文件不完整：{}，使用实时排盘", path);
+                return;
+            }
+            this.firstEpochDay = mapped.getLong(ChartFileFormat.OFFSET_FIRST_EPOCH_DAY);
+            this.dayCount = days;
+            this.buffer = mapped;
+            log.info("已映射预计算排盘数据文件：{}，共{}天，{}字节", path, days, expectedSize);
+        } catch (IOException e) {
+            log.warn("映射预计算排盘数据文件失败：{}，使用实时排盘", path, e);
+        }
+    }
+
+    /**
+     * 数据文件是否可用
+     */
+    public boolean isAvailable() {
+        return buffer != null;
+    }
+
+    /**
+     * 定位记录
+     *
+     * @param hourBranch 时辰地支序号（0-11）
+     * @return 记录偏移，文件不可用或日期不在覆盖范围内返回-1
+     */
+    public int find(LocalDate birthDate, int hourBranch) {
+        if (buffer == null || hourBranch < 0 || hourBranch >= ChartFileFormat.RECORDS_PER_DAY) {
+            return -1;
+        }
+        long day = birthDate.toEpochDay() - firstEpochDay;
+        if (day < 0 || day >= dayCount) {
+            return -1;
+        }
+        return ChartFileFormat.HEADER_SIZE
+               + ((int) day * ChartFileFormat.RECORDS_PER_DAY + hourBranch) * ChartFileFormat.RECORD_SIZE;
+    }
+
+    /**
+     * 四柱八字
+     */
+    public GanZhi ganZhi(int record) {
+        int pillars = buffer.getInt(record + ChartFileFormat.YEAR_PILLAR);
+        return GanZhi.of(pillars >>> 24, (pillars >> 16) & 0xff, (pillars >> 8) & 0xff, pillars & 0xff);
+    }
+
+    /**
+     * 农历日期（只含年月日和闰月标志）
+     */
+    public LunarDate lunarDate(int record) {
+        int month = buffer.get(record + ChartFileFormat.LUNAR_MONTH);
+        return LunarDate.of((int) buffer.getShort(record + ChartFileFormat.LUNAR_YEAR),
+                            month & 0x7f,
+                            (int) buffer.get(record + ChartFileFormat.LUNAR_DAY),
+                            (month & ChartFileFormat.LEAP_FLAG) != 0);
+    }
+
+    /**
+     * 五行计数（压缩格式，同 BaZiEngine.countWuXing）
+     */
+    public int wuXingCounts(int record) {
+        return buffer.getInt(record + ChartFileFormat.WU_XING);
+    }
+
+    /**
+     * 五行缺失位掩码
+     */
+    public int lackMask(int record) {
+        return buffer.get(record + ChartFileFormat.LACK_MASK);
+    }
+
+    /**
+     * 生肖序号
+     */
+    public int shengXiao(int record) {
+        return buffer.get(record + ChartFileFormat.SHENG_XIAO);
+    }
+}
@@ -0,0 +1,176 @@
+package com.fortune.infrastructure.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeepSeek HTTP客户端配置
+ *
+ * 所有DeepSeek调用共用一个连接池：连接保持长连接复用，TLS会话缓存在SSLContext中，
+ * 连接被服务端关闭后重连也可以复用会话，省去完整握手。
+ * 建连、读取、从池中取连接分别设置超时，取连接超时时快速失败走兜底内容，不在池外排队。
+ * 连接池指标以 httpcomponents.httpclient.pool.* 暴露（name=deepseek），请求耗时见 http.client.requests。
+ * 异步调用在独立的有界线程池中执行（舱壁），线程和队列都满时立即拒绝，DeepSeek变慢不会占满Tomcat工作线程；
+ * 线程池指标见 executor.*（name=deepSeekExecutor）。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Configuration
+public class DeepSeekHttpConfig {
+
+    @Value("${fortune.deepseek.http.max-total:50}")
+    private int maxTotal;
+
+    @Value("${fortune.deepseek.http.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${fortune.deepseek.http.connect-timeout:3000}")
+    private int connectTimeout;
+
+    @Value("${fortune.deepseek.http.read-timeout:30000}")
+    private int readTimeout;
+
+    @Value("${fortune.deepseek.http.acquire-timeout:2000}")
+    private int acquireTimeout;
+
+    @Value("${fortune.deepseek.http.idle-timeout:60000}")
+    private long idleTimeout;
+
+    @Value("${fortune.deepseek.http.time-to-live:600000}")
+    private long timeToLive;
+
+    /**
+     * TLS会话缓存时长（秒）
+     */
+    @Value("${fortune.deepseek.http.tls-session-timeout:3600}")
+    private int tlsSessionTimeout;
+
+    /**
+     * 长连接复用前的空闲校验间隔
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    private static final int TLS_SESSION_CACHE_SIZE = 256;
+    
+    /**
+     * DeepSeek调用线程数，不超过连接池总连接数才有意义
+     */
+    @Value("${fortune.deepseek.executor.threads:20}")
+    private int executorThreads;
+    
+    /**
+     * 等待执行的调用数上限，超出时拒绝
+     */
+    @Value("${fortune.deepseek.executor.queue-capacity:100}")
+    private int executorQueueCapacity;
+
+    /**
+     * DeepSeek连接池
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager deepSeekConnectionManager() {
+        SSLContext sslContext = SSLContexts.createSystemDefault();
+        sslContext.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE_SIZE);
+        sslContext.getClientSessionContext().setSessionTimeout(tlsSessionTimeout);
+
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext))
+                .build();
+
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+                registry, null, null, null, timeToLive, TimeUnit.MILLISECONDS);
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+        System.out.println("配置DeepSeek连接池: 总连接" + maxTotal + "，每主机" + maxPerRoute);
+        return manager;
+    }
+
+    /**
+     * DeepSeek HTTP客户端，后台线程定期清理空闲和过期连接
+     */
+    @Bean
+    public CloseableHttpClient deepSeekHttpClient(PoolingHttpClientConnectionManager deepSeekConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(acquireTimeout)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(deepSeekConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * DeepSeek调用使用的RestTemplate，经RestTemplateBuilder构建以记录请求耗时指标
+     */
+    @Bean
+    public RestTemplate deepSeekRestTemplate(RestTemplateBuilder builder,
+                                             @Qualifier("deepSeekHttpClient") CloseableHttpClient deepSeekHttpClient) {
+        RestTemplate restTemplate = builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(deepSeekHttpClient))
+                .build();
+        restTemplate.getMessageConverters().forEach(converter -> {
+            if (converter instanceof StringHttpMessageConverter) {
+                ((StringHttpMessageConverter) converter).setDefaultCharset(StandardCharsets.UTF_8);
+            }
+        });
+        return restTemplate;
+    }
+
+    /**
+     * DeepSeek调用线程池：固定线程数、有界队列，队列满时抛出 TaskRejectedException
+     */
+    @Bean
+    public ThreadPoolTaskExecutor deepSeekExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(executorThreads);
+        executor.setMaxPoolSize(executorThreads);
+        executor.setQueueCapacity(executorQueueCapacity);
+        executor.setThreadNamePrefix("deepseek-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        System.out.println("配置DeepSeek调用线程池: 线程" + executorThreads + "，队列" + executorQueueCapacity);
+        return executor;
+    }
+    
+    /**
+     * 连接池指标：可用、已借出、等待中的连接数及上限
+     */
+    @Bean
+    public MeterBinder deepSeekConnectionPoolMetrics(PoolingHttpClientConnectionManager deepSeekConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(deepSeekConnectionManager, "deepseek");
+    }
+}
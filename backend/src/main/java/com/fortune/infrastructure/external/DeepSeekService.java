@@ -3,20 +3,41 @@ package com.fortune.infrastructure.external;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.fortune.domain.fortune.service.BaZiEngine;
+import com.fortune.domain.fortune.service.WuXingAnalyzer;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.WuXingAnalysis;
+import com.fortune.infrastructure.cache.AnalysisCache;
+import com.fortune.infrastructure.cache.GenerationLock;
+import com.fortune.infrastructure.cache.SingleFlight;
 import com.fortune.interfaces.dto.response.NameRecommendationResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
-import java.time.LocalDate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * DeepSeek AI服务
@@ -46,101 +67,328 @@ public class DeepSeekService {
     @Value("${fortune.deepseek.mock-mode:true}")
     private Boolean mockMode = true;
     
+    /**
+     * 共享连接池的RestTemplate，超时与连接池配置见 DeepSeekHttpConfig
+     */
     private final RestTemplate restTemplate;
     
-    // 今日运势缓存
-    private final Map<String, String> todayFortuneCache = new ConcurrentHashMap<>();
-    private String lastFortuneCacheDate = "";
+    private final AnalysisCache analysisCache;
     
-    public DeepSeekService() {
-        this.restTemplate = new RestTemplate();
-        // 设置超时时间为5秒
-        this.restTemplate.getMessageConverters().forEach(converter -> {
-            if (converter instanceof org.springframework.http.converter.StringHttpMessageConverter) {
-                ((org.springframework.http.converter.StringHttpMessageConverter) converter).setDefaultCharset(java.nio.charset.StandardCharsets.UTF_8);
-            }
-        });
+    /**
+     * 命理分析提示词模板，修改后提示词版本随之变化
+     */
+    private static final String FORTUNE_ANALYSIS_PROMPT =
+            "请根据以下八字信息进行专业的命理分析：\n" +
+            "天干地支：%s\n" +
+            "五行属性：%s\n" +
+            "五行缺失：%s\n" +
+            "生肖：%s\n" +
+            "%s\n" +
+            "请从以下几个方面进行分析：\n" +
+            "1. 性格特点\n" +
+            "2. 事业发展\n" +
+            "3. 财运状况\n" +
+            "4. 感情婚姻\n" +
+            "5. 健康状况\n" +
+            "6. 人生建议\n\n" +
+            "要求：语言通俗易懂，积极正面，字数控制在300字以内。";
+    
+    /**
+     * 提示词版本（模板与模型的摘要），延迟计算
+     */
+    private volatile String promptVersion;
+    
+    /**
+     * 相同提示词的并发请求只调用一次DeepSeek，其余调用方等待同一结果（含兜底内容）
+     */
+    private final SingleFlight<String, String> analysisFlights = new SingleFlight<>();
+    
+    private final SingleFlight<String, List<NameRecommendationResponse>> nameFlights = new SingleFlight<>();
+    
+    private final GenerationLock generationLock;
+    
+    /**
+     * 等待其他节点生成结果的最长时间
+     */
+    @Value("${fortune.deepseek.lock.wait-ms:40000}")
+    private long lockWaitMs;
+    
+    private static final long LOCK_POLL_INITIAL_MS = 100;
+    
+    private static final long LOCK_POLL_MAX_MS = 1000;
+    
+    /**
+     * 模拟模式下流式输出的每段字数
+     */
+    private static final int MOCK_STREAM_CHUNK = 8;
+    
+    /**
+     * 异步调用使用的有界线程池，见 DeepSeekHttpConfig
+     */
+    private final AsyncTaskExecutor deepSeekExecutor;
+    
+    public DeepSeekService(@Qualifier("deepSeekRestTemplate") RestTemplate restTemplate, AnalysisCache analysisCache,
+                           GenerationLock generationLock,
+                           @Qualifier("deepSeekExecutor") AsyncTaskExecutor deepSeekExecutor,
+                           MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.analysisCache = analysisCache;
+        this.generationLock = generationLock;
+        this.deepSeekExecutor = deepSeekExecutor;
+        FunctionCounter.builder("deepseek.requests.coalesced", analysisFlights, SingleFlight::getCoalesced)
+                .description("与进行中的相同请求合并、未单独调用DeepSeek的次数")
+                .tag("operation", "fortune-analysis")
+                .register(meterRegistry);
+        FunctionCounter.builder("deepseek.requests.coalesced", nameFlights, SingleFlight::getCoalesced)
+                .description("与进行中的相同请求合并、未单独调用DeepSeek的次数")
+                .tag("operation", "name-recommendation")
+                .register(meterRegistry);
     }
     
     /**
      * 生成命理分析
      */
     public String generateFortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao) {
+        return generateFortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao, null);
+    }
+    
+    /**
+     * 生成命理分析（附带十神、日主强弱等五行分析结果）
+     * 
+     * 在调用线程中执行；与进行中的相同请求合并或等待其他节点生成时，阻塞的是调用线程本身
+     */
+    public String generateFortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao,
+                                          WuXingAnalysis analysis) {
+        return SingleFlight.join(fortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao, analysis));
+    }
+    
+    /**
+     * 异步生成命理分析，在DeepSeek线程池中执行，不占用调用方线程；
+     * 合并到进行中的相同请求或等待其他节点生成结果时不占用线程池线程
+     * 
+     * @return 线程池已满时返回以 TaskRejectedException 失败的 future
+     */
+    public CompletableFuture<String> generateFortuneAnalysisAsync(String ganZhi, String wuXing, String wuXingLack,
+                                                                  String shengXiao, WuXingAnalysis analysis) {
+        return submit(() -> fortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao, analysis))
+                .thenCompose(Function.identity());
+    }
+    
+    /**
+     * 查缓存、合并请求并启动生成；缓存命中或取得生成锁时在当前线程完成，
+     * 需要等待时立即返回未完成的 future
+     */
+    private CompletableFuture<String> fortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao,
+                                                      WuXingAnalysis analysis) {
         System.out.println("调用DeepSeek生成命理分析，天干地支：" + ganZhi + "，五行：" + wuXing + "，五行缺失：" + wuXingLack + "，生肖：" + shengXiao);
         
-        String prompt = buildFortuneAnalysisPrompt(ganZhi, wuXing, wuXingLack, shengXiao);
-        
-        try {
-            String response = callDeepSeekApi(prompt);
-            System.out.println("DeepSeek命理分析响应：" + response);
-            return response;
-        } catch (Exception e) {
-            System.err.println("调用DeepSeek生成命理分析失败: " + e.getMessage());
-            return generateDefaultFortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao);
+        // 提示词只由八字决定，按八字编码缓存；八字不完整时不缓存
+        int chartCode = GanZhi.parse(ganZhi).code();
+        String cacheKey = chartCode != GanZhi.UNKNOWN_CODE ? analysisCacheKey(chartCode, analysis != null) : null;
+        if (cacheKey != null) {
+            String cached = analysisCache.get(cacheKey);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
         }
+        
+        String prompt = buildFortuneAnalysisPrompt(ganZhi, wuXing, wuXingLack, shengXiao, analysis);
+        
+        return analysisFlights.execute(cacheKey != null ? cacheKey : prompt, () -> {
+            // 刚结束的同键请求可能已写入缓存
+            if (cacheKey != null) {
+                String cached = analysisCache.get(cacheKey);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+            }
+            Supplier<String> fallback = () -> generateDefaultFortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao, analysis);
+            Supplier<String> generate = () -> {
+                try {
+                    String response = callDeepSeekApi(prompt);
+                    System.out.println("DeepSeek命理分析响应：" + response);
+                    // 模拟模式的结果不写入共享缓存，兜底内容走异常分支也不缓存
+                    if (cacheKey != null && !mockMode) {
+                        analysisCache.put(cacheKey, response);
+                    }
+                    return response;
+                } catch (Exception e) {
+                    System.err.println("调用DeepSeek生成命理分析失败: " + e.getMessage());
+                    return fallback.get();
+                }
+            };
+            return cacheKey != null && !mockMode
+                   ? generateOnce(cacheKey, generate, fallback, System.currentTimeMillis() + lockWaitMs)
+                   : CompletableFuture.completedFuture(generate.get());
+        });
     }
     
     /**
-     * 生成姓名推荐
+     * 跨节点只生成一次：取得生成锁的节点在当前线程调用DeepSeek，其余节点按退避间隔轮询共享缓存；
+     * 持有节点结束却没有结果（调用失败或宕机后租约过期）时重新争取租约，等待超时返回兜底内容
      */
-    public List<NameRecommendationResponse> generateNameRecommendations(String wuXingLack, String ganZhi, String surname) {
-        System.out.println("调用DeepSeek生成姓名推荐，五行缺失：" + wuXingLack + "，天干地支：" + ganZhi + "，姓氏：" + surname);
-        
-        String prompt = buildNameRecommendationPrompt(wuXingLack, ganZhi, surname);
-        
-        try {
-            String response = callDeepSeekApi(prompt);
-            System.out.println("DeepSeek姓名推荐响应：" + response);
-            return parseNameRecommendations(response);
-        } catch (Exception e) {
-            System.err.println("调用DeepSeek生成姓名推荐失败: " + e.getMessage());
-            return generateDefaultNameRecommendations(wuXingLack, surname);
+    private CompletableFuture<String> generateOnce(String cacheKey, Supplier<String> generate, Supplier<String> fallback,
+                                                   long deadline) {
+        GenerationLock.Lease lease = generationLock.tryAcquire(cacheKey);
+        if (lease != null) {
+            try {
+                // 上一个持有节点可能刚写入结果并释放租约
+                String shared = analysisCache.peekShared(cacheKey);
+                return CompletableFuture.completedFuture(shared != null ? shared : generate.get());
+            } finally {
+                generationLock.release(lease);
+            }
         }
+        return pollShared(cacheKey, generate, fallback, deadline, LOCK_POLL_INITIAL_MS);
     }
     
     /**
-     * 生成今日运势（带缓存）
+     * 间隔 backoff 后检查一次共享缓存。计时由 CompletableFuture 的定时器完成，到点后检查（及重新争取租约后的生成）
+     * 提交到DeepSeek线程池执行，等待期间不占用任何线程；线程池已满时返回兜底内容
      */
-    public String getTodayFortune() {
-        System.out.println("调用DeepSeek生成今日运势");
+    private CompletableFuture<String> pollShared(String cacheKey, Supplier<String> generate, Supplier<String> fallback,
+                                                 long deadline, long backoff) {
+        long delay = Math.min(backoff, Math.max(1, deadline - System.currentTimeMillis()));
+        return new CompletableFuture<Void>()
+                .completeOnTimeout(null, delay, TimeUnit.MILLISECONDS)
+                .thenComposeAsync(ignored -> {
+                    String shared = analysisCache.peekShared(cacheKey);
+                    if (shared != null) {
+                        return CompletableFuture.completedFuture(shared);
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        System.err.println("等待其他节点生成命理分析超时，使用默认分析：" + cacheKey);
+                        return CompletableFuture.completedFuture(fallback.get());
+                    }
+                    if (generationLock.isHeld(cacheKey)) {
+                        return pollShared(cacheKey, generate, fallback, deadline, Math.min(backoff * 2, LOCK_POLL_MAX_MS));
+                    }
+                    return generateOnce(cacheKey, generate, fallback, deadline);
+                }, deepSeekExecutor)
+                .exceptionally(e -> {
+                    System.err.println("等待其他节点生成命理分析失败，使用默认分析：" + e.getMessage());
+                    return fallback.get();
+                });
+    }
+    
+    /**
+     * 流式生成命理分析：模型每输出一段就回调一次增量文本，返回完整内容
+     * 
+     * 已缓存时一次回调完整内容；尚未输出任何内容就调用失败时回调兜底内容；
+     * 输出中途失败（包括回调抛出异常，如客户端断开）时中止读取并抛出异常，不完整的内容不缓存。
+     * 流式调用不参与请求合并和跨节点生成锁，各自读取模型输出。
+     */
+    public String streamFortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao,
+                                        WuXingAnalysis analysis, Consumer<String> onDelta) {
+        System.out.println("流式调用DeepSeek生成命理分析，天干地支：" + ganZhi);
         
-        String today = LocalDate.now().toString();
+        int chartCode = GanZhi.parse(ganZhi).code();
+        String cacheKey = chartCode != GanZhi.UNKNOWN_CODE ? analysisCacheKey(chartCode, analysis != null) : null;
+        if (cacheKey != null) {
+            String cached = analysisCache.get(cacheKey);
+            if (cached != null) {
+                onDelta.accept(cached);
+                return cached;
+            }
+        }
         
-        // 检查缓存
-        if (today.equals(lastFortuneCacheDate) && todayFortuneCache.containsKey(today)) {
-            System.out.println("使用今日运势缓存");
-            return todayFortuneCache.get(today);
+        String prompt = buildFortuneAnalysisPrompt(ganZhi, wuXing, wuXingLack, shengXiao, analysis);
+        StringBuilder content = new StringBuilder();
+        try {
+            callDeepSeekStreamApi(prompt, delta -> {
+                content.append(delta);
+                onDelta.accept(delta);
+            });
+        } catch (RuntimeException e) {
+            // 已输出部分内容，无法再换成兜底内容
+            if (content.length() > 0) {
+                throw e;
+            }
+            System.err.println("流式调用DeepSeek生成命理分析失败: " + e.getMessage());
+            String fallback = generateDefaultFortuneAnalysis(ganZhi, wuXing, wuXingLack, shengXiao, analysis);
+            onDelta.accept(fallback);
+            return fallback;
         }
         
-        // 清理过期缓存
-        if (!today.equals(lastFortuneCacheDate)) {
-            todayFortuneCache.clear();
-            lastFortuneCacheDate = today;
+        String response = content.toString();
+        if (cacheKey != null && !mockMode && !response.isEmpty()) {
+            analysisCache.put(cacheKey, response);
+        }
+        return response;
+    }
+    
+    /**
+     * 离线预生成：确保该八字（带十神信息）的命理分析已由DeepSeek生成并保存到分析表
+     * 
+     * @return 分析表中是否已有结果；调用失败得到兜底内容时返回false
+     */
+    public boolean pregenerateFortuneAnalysis(GanZhi ganZhi) {
+        String cacheKey = analysisCacheKey(ganZhi.code(), true);
+        if (analysisCache.isPersisted(cacheKey)) {
+            return true;
         }
+        int wuXingCounts = BaZiEngine.countWuXing(ganZhi);
+        generateFortuneAnalysis(ganZhi.format(), BaZiEngine.formatWuXing(wuXingCounts),
+                                BaZiEngine.formatLack(BaZiEngine.lackMask(wuXingCounts)), BaZiEngine.shengXiao(ganZhi),
+                                WuXingAnalyzer.analyze(ganZhi));
+        return analysisCache.isPersisted(cacheKey);
+    }
+    
+    /**
+     * 生成姓名推荐
+     */
+    public List<NameRecommendationResponse> generateNameRecommendations(String wuXingLack, String ganZhi, String surname) {
+        return SingleFlight.join(nameRecommendations(wuXingLack, ganZhi, surname));
+    }
+    
+    /**
+     * 异步生成姓名推荐，在DeepSeek线程池中执行，不占用调用方线程；合并到进行中的相同请求时不占用线程池线程
+     * 
+     * @return 线程池已满时返回以 TaskRejectedException 失败的 future
+     */
+    public CompletableFuture<List<NameRecommendationResponse>> generateNameRecommendationsAsync(String wuXingLack,
+                                                                                                String ganZhi,
+                                                                                                String surname) {
+        return submit(() -> nameRecommendations(wuXingLack, ganZhi, surname)).thenCompose(Function.identity());
+    }
+    
+    private CompletableFuture<List<NameRecommendationResponse>> nameRecommendations(String wuXingLack, String ganZhi,
+                                                                                    String surname) {
+        System.out.println("调用DeepSeek生成姓名推荐，五行缺失：" + wuXingLack + "，天干地支：" + ganZhi + "，姓氏：" + surname);
         
-        String prompt = "请生成一段今日运势分析，包含事业、财运、感情、健康等方面的建议，语言要温馨正面，字数控制在200字以内。";
+        String prompt = buildNameRecommendationPrompt(wuXingLack, ganZhi, surname);
         
+        // 合并的调用方共享同一结果，各自拿一份副本
+        return nameFlights.execute(prompt, () -> {
+            try {
+                String response = callDeepSeekApi(prompt);
+                System.out.println("DeepSeek姓名推荐响应：" + response);
+                return CompletableFuture.completedFuture(parseNameRecommendations(response));
+            } catch (Exception e) {
+                System.err.println("调用DeepSeek生成姓名推荐失败: " + e.getMessage());
+                return CompletableFuture.completedFuture(generateDefaultNameRecommendations(wuXingLack, surname));
+            }
+        }).thenApply(ArrayList::new);
+    }
+    
+    /**
+     * 在DeepSeek线程池中执行，拒绝时不抛出，而是返回失败的 future
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
         try {
-            String response = callDeepSeekApiWithTimeout(prompt, 5000); // 5秒超时
-            System.out.println("DeepSeek今日运势响应：" + response);
-            
-            // 缓存结果
-            todayFortuneCache.put(today, response);
-            return response;
-        } catch (Exception e) {
-            System.err.println("调用DeepSeek生成今日运势失败: " + e.getMessage());
-            String defaultFortune = generateDefaultTodayFortune();
-            
-            // 缓存默认结果
-            todayFortuneCache.put(today, defaultFortune);
-            return defaultFortune;
+            return CompletableFuture.supplyAsync(task, deepSeekExecutor);
+        } catch (TaskRejectedException e) {
+            System.err.println("DeepSeek调用线程池已满，拒绝请求");
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
         }
     }
     
     /**
-     * 调用DeepSeek API（带超时）
+     * 调用DeepSeek API
      */
-    private String callDeepSeekApiWithTimeout(String prompt, int timeoutMs) {
+    private String callDeepSeekApi(String prompt) {
         // 如果启用模拟模式，直接返回模拟数据
         if (mockMode) {
             System.out.println("模拟模式：跳过DeepSeek API调用");
@@ -148,17 +396,7 @@ public class DeepSeekService {
         }
         
         // 构建请求体
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("max_tokens", maxTokens);
-        requestBody.put("temperature", temperature);
-        
-        List<Map<String, String>> messages = new ArrayList<>();
-        Map<String, String> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt);
-        messages.add(message);
-        requestBody.put("messages", messages);
+        Map<String, Object> requestBody = buildRequestBody(prompt);
         
         // 设置请求头
         HttpHeaders headers = new HttpHeaders();
@@ -167,15 +405,8 @@ public class DeepSeekService {
         
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
         
-        // 创建带超时的RestTemplate
-        RestTemplate timeoutRestTemplate = new RestTemplate();
-        timeoutRestTemplate.setRequestFactory(new org.springframework.http.client.SimpleClientHttpRequestFactory() {{
-            setConnectTimeout(timeoutMs);
-            setReadTimeout(timeoutMs);
-        }});
-        
-        // 发送请求
-        ResponseEntity<String> response = timeoutRestTemplate.postForEntity(apiUrl, entity, String.class);
+        // 发送请求（连接池复用长连接）
+        ResponseEntity<String> response = restTemplate.postForEntity(apiUrl, entity, String.class);
         
         if (response.getStatusCode() == HttpStatus.OK) {
             JSONObject jsonResponse = JSON.parseObject(response.getBody());
@@ -191,25 +422,83 @@ public class DeepSeekService {
     }
     
     /**
-     * 调用DeepSeek API
+     * 以流式方式调用DeepSeek API（stream: true），逐段回调 choices[0].delta.content，读到 [DONE] 或流结束时返回
      */
-    private String callDeepSeekApi(String prompt) {
-        return callDeepSeekApiWithTimeout(prompt, 30000); // 默认30秒超时
+    private void callDeepSeekStreamApi(String prompt, Consumer<String> onDelta) {
+        // 模拟模式按固定字数切分模拟数据
+        if (mockMode) {
+            String mock = generateMockResponse(prompt);
+            for (int start = 0; start < mock.length(); ) {
+                int end = Math.min(mock.length(), start + MOCK_STREAM_CHUNK);
+                if (end < mock.length() && Character.isHighSurrogate(mock.charAt(end - 1))) {
+                    end++;
+                }
+                onDelta.accept(mock.substring(start, end));
+                start = end;
+            }
+            return;
+        }
+        
+        Map<String, Object> requestBody = buildRequestBody(prompt);
+        requestBody.put("stream", true);
+        byte[] body = JSON.toJSONString(requestBody).getBytes(StandardCharsets.UTF_8);
+        
+        restTemplate.execute(apiUrl, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setAccept(Collections.singletonList(MediaType.TEXT_EVENT_STREAM));
+            request.getHeaders().setBearerAuth(apiKey);
+            request.getBody().write(body);
+        }, response -> {
+            readEventStream(response.getBody(), onDelta);
+            return null;
+        });
+    }
+    
+    /**
+     * 解析SSE响应：每个事件为 "data: {json}" 一行，以 "data: [DONE]" 结束
+     */
+    private static void readEventStream(InputStream in, Consumer<String> onDelta) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                return;
+            }
+            if (data.isEmpty()) {
+                continue;
+            }
+            JSONArray choices = JSON.parseObject(data).getJSONArray("choices");
+            if (choices == null || choices.isEmpty()) {
+                continue;
+            }
+            JSONObject delta = choices.getJSONObject(0).getJSONObject("delta");
+            String content = delta != null ? delta.getString("content") : null;
+            if (content != null && !content.isEmpty()) {
+                onDelta.accept(content);
+            }
+        }
     }
     
     /**
-     * 生成默认今日运势
+     * 构建对话请求体
      */
-    private String generateDefaultTodayFortune() {
-        String[] fortunes = {
-            "【今日运势】🌟\n\n**事业**：今天思维敏捷，适合处理复杂问题，团队合作顺利，有望获得上级认可。\n\n**财运**：正财运佳，可能有意外收入，但需谨慎投资，避免冲动消费。\n\n**感情**：单身者桃花运旺，有机会遇到心仪对象；有伴者感情稳定，适合深入交流。\n\n**健康**：精神状态良好，注意劳逸结合，适量运动有助身心健康。\n\n✨ **幸运提示**：保持积极心态，好运自然来！",
-            "【今日运势】🌞\n\n**事业**：今天灵感充沛，适合推进创意项目，团队合作也会格外顺利。保持开放心态，机会可能来自意想不到的地方。\n\n**财运**：小有惊喜的一天，或许有额外收入或礼物。但消费需理性，避免冲动购物，长远规划更有利。\n\n**感情**：单身者易遇暖心互动，不妨主动表达好感；有伴侣者适合安排浪漫约会，细节最能打动人心。\n\n**健康**：注意劳逸结合，久坐后记得伸展身体。午后一杯花茶能舒缓压力，保持好心情是关键。\n\n✨ **幸运小贴士**：微笑会为你吸引好运，今天记得多分享快乐哦！",
-            "【今日运势】🍀\n\n**事业**：今天你充满能量，适合推进重要项目，团队合作会带来惊喜。保持积极沟通，灵感可能在不经意间闪现。\n\n**财运**：财务上有小惊喜，可能是额外收入或意外节省。理性消费的同时，不妨犒劳自己一下。\n\n**感情**：单身者有机会遇到有趣的人，放松心态展现真我。有伴者适合制造浪漫，小小举动能让感情升温。\n\n**健康**：注意劳逸结合，久坐后记得活动身体。一杯温水、一段散步，都能让你焕发活力。\n\n✨ **幸运小贴士**：今天适合穿亮色衣物，笑容会为你吸引好运！"
-        };
+    private Map<String, Object> buildRequestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("temperature", temperature);
         
-        // 根据日期选择不同的运势
-        int index = LocalDate.now().getDayOfYear() % fortunes.length;
-        return fortunes[index];
+        List<Map<String, String>> messages = new ArrayList<>();
+        Map<String, String> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", prompt);
+        messages.add(message);
+        requestBody.put("messages", messages);
+        return requestBody;
     }
     
     /**
@@ -255,26 +544,47 @@ public class DeepSeekService {
         }
     }
     
+    /**
+     * 命理分析缓存键：提示词版本 + 八字编码，不带十神信息的提示词单独成版本
+     */
+    private String analysisCacheKey(int chartCode, boolean withShiShen) {
+        String version = getPromptVersion();
+        return AnalysisCache.key(withShiShen ? version : version + "b", chartCode);
+    }
+    
+    /**
+     * 命理分析提示词版本（模板与模型的摘要）
+     */
+    public String getPromptVersion() {
+        String version = promptVersion;
+        if (version == null) {
+            version = DigestUtils.md5DigestAsHex((FORTUNE_ANALYSIS_PROMPT + "|" + model).getBytes(StandardCharsets.UTF_8))
+                    .substring(0, 8);
+            promptVersion = version;
+        }
+        return version;
+    }
+    
     /**
      * 构建命理分析提示词
      */
-    private String buildFortuneAnalysisPrompt(String ganZhi, String wuXing, String wuXingLack, String shengXiao) {
-        return String.format(
-            "请根据以下八字信息进行专业的命理分析：\n" +
-            "天干地支：%s\n" +
-            "五行属性：%s\n" +
-            "五行缺失：%s\n" +
-            "生肖：%s\n\n" +
-            "请从以下几个方面进行分析：\n" +
-            "1. 性格特点\n" +
-            "2. 事业发展\n" +
-            "3. 财运状况\n" +
-            "4. 感情婚姻\n" +
-            "5. 健康状况\n" +
-            "6. 人生建议\n\n" +
-            "要求：语言通俗易懂，积极正面，字数控制在300字以内。",
-            ganZhi, wuXing, wuXingLack, shengXiao
-        );
+    private String buildFortuneAnalysisPrompt(String ganZhi, String wuXing, String wuXingLack, String shengXiao,
+                                              WuXingAnalysis analysis) {
+        return String.format(FORTUNE_ANALYSIS_PROMPT, ganZhi, wuXing, wuXingLack, shengXiao, buildShiShenSection(analysis));
+    }
+    
+    /**
+     * 十神与日主强弱信息，无分析结果时为空
+     */
+    private String buildShiShenSection(WuXingAnalysis analysis) {
+        if (analysis == null || analysis.getDayMaster() == null) {
+            return "";
+        }
+        return "日主：" + analysis.getDayMaster() + "（" + analysis.getDayMasterStrength()
+               + "，帮身力量" + analysis.getDayMasterSupport() + "%）\n"
+               + "天干十神（年月日时）：" + String.join(" ", analysis.getStemShiShen()) + "\n"
+               + "地支十神（年月日时）：" + String.join(" ", analysis.getBranchShiShen()) + "\n"
+               + "藏干十神：" + String.join("；", analysis.getHiddenShiShen()) + "\n";
     }
     
     /**
@@ -401,7 +711,8 @@ public class DeepSeekService {
     /**
      * 生成默认命理分析
      */
-    private String generateDefaultFortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao) {
+    private String generateDefaultFortuneAnalysis(String ganZhi, String wuXing, String wuXingLack, String shengXiao,
+                                                  WuXingAnalysis analysis) {
         return String.format(
             "根据您的八字信息分析：\n\n" +
             "您的天干地支为%s，五行属性为%s，生肖为%s。\n\n" +
@@ -410,12 +721,36 @@ public class DeepSeekService {
             "财运状况：财运平稳，正财运较好，建议理性投资，避免投机。\n\n" +
             "感情婚姻：感情运势良好，建议多沟通理解，真诚待人。\n\n" +
             "健康状况：整体健康状况良好，注意%s方面的保养。\n\n" +
-            "人生建议：保持积极乐观的心态，多学习充实自己，机会总是留给有准备的人。",
+            "人生建议：保持积极乐观的心态，多学习充实自己，机会总是留给有准备的人。%s",
             ganZhi, wuXing, shengXiao, wuXing, 
-            wuXingLack.isEmpty() ? "身体各方面" : wuXingLack + "相关器官"
+            wuXingLack.isEmpty() ? "身体各方面" : wuXingLack + "相关器官",
+            buildDefaultShiShenAdvice(analysis)
         );
     }
     
+    /**
+     * 本地兜底分析中的日主强弱建议，无分析结果时为空
+     */
+    private String buildDefaultShiShenAdvice(WuXingAnalysis analysis) {
+        if (analysis == null || analysis.getDayMasterStrength() == null) {
+            return "";
+        }
+        String advice;
+        switch (analysis.getDayMasterStrength()) {
+            case "身强":
+                advice = "精力充沛、主见强，宜把才华投入到实际产出中，借食伤、财星之力发挥所长";
+                break;
+            case "身弱":
+                advice = "宜多借助贵人与团队的力量，重视学习积累，以印星、比劫扶助自身";
+                break;
+            default:
+                advice = "命局较为平衡，宜顺势而为，稳中求进";
+                break;
+        }
+        return "\n\n命局特点：日主" + analysis.getDayMaster() + "，" + analysis.getDayMasterStrength()
+               + "，月干为" + analysis.getStemShiShen().get(1) + "，" + advice + "。";
+    }
+    
     /**
      * 生成默认姓名推荐
      */
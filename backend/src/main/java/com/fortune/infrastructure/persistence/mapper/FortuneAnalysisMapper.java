@@ -0,0 +1,32 @@
+package com.fortune.infrastructure.persistence.mapper;
+
+import org.apache.ibatis.annotations.*;
+
+/**
+ * AI分析结果Mapper
+ * 
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Mapper
+public interface FortuneAnalysisMapper {
+    
+    /**
+     * 按缓存键查询分析内容
+     */
+    @Select("SELECT content FROM t_fortune_analysis WHERE cache_key = #{cacheKey}")
+    String selectContent(@Param("cacheKey") String cacheKey);
+    
+    /**
+     * 缓存键是否已有分析
+     */
+    @Select("SELECT COUNT(*) FROM t_fortune_analysis WHERE cache_key = #{cacheKey}")
+    int countByKey(@Param("cacheKey") String cacheKey);
+    
+    /**
+     * 写入分析，已存在时覆盖
+     */
+    @Insert("INSERT INTO t_fortune_analysis (cache_key, content) VALUES (#{cacheKey}, #{content}) " +
+            "ON DUPLICATE KEY UPDATE content = VALUES(content), update_time = NOW()")
+    int upsert(@Param("cacheKey") String cacheKey, @Param("content") String content);
+}
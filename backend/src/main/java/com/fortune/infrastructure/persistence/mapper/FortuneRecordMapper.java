@@ -18,9 +18,9 @@ public interface FortuneRecordMapper {
      * 插入命理记录
      */
     @Insert("INSERT INTO t_fortune_record (user_id, user_name, birth_date, birth_time, lunar_date, " +
-            "gan_zhi, wu_xing, wu_xing_lack, sheng_xiao, ai_analysis, deleted) " +
+            "gan_zhi, gan_zhi_code, wu_xing, wu_xing_lack, sheng_xiao, ai_analysis, deleted) " +
             "VALUES (#{userId}, #{userName}, #{birthDate}, #{birthTime}, #{lunarDate}, " +
-            "#{ganZhi}, #{wuXing}, #{wuXingLack}, #{shengXiao}, #{aiAnalysis}, #{deleted})")
+            "#{ganZhi}, #{ganZhiCode}, #{wuXing}, #{wuXingLack}, #{shengXiao}, #{aiAnalysis}, #{deleted})")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(FortuneRecordPO record);
     
@@ -45,6 +45,32 @@ public interface FortuneRecordMapper {
     @Select("SELECT * FROM t_fortune_record WHERE id = #{id} AND deleted = 0")
     FortuneRecordPO selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID批量查询记录
+     */
+    @Select("<script>SELECT * FROM t_fortune_record WHERE deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<FortuneRecordPO> selectByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 统计八字编码在 [minCode, maxCode) 内的记录数，走 gan_zhi_code 索引范围扫描
+     */
+    @Select("SELECT COUNT(*) FROM t_fortune_record WHERE gan_zhi_code >= #{minCode} AND gan_zhi_code < #{maxCode} " +
+            "AND deleted = 0")
+    int countByGanZhiCodeRange(@Param("minCode") int minCode, @Param("maxCode") int maxCode);
+    
+    /**
+     * 统计没有八字编码的记录数（升级前保存且 gan_zhi 无法解析的旧记录）
+     */
+    @Select("SELECT COUNT(*) FROM t_fortune_record WHERE gan_zhi_code IS NULL AND deleted = 0")
+    int countWithoutGanZhiCode();
+    
+    /**
+     * 更新AI分析结果
+     */
+    @Update("UPDATE t_fortune_record SET ai_analysis = #{aiAnalysis}, update_time = NOW() WHERE id = #{id} AND deleted = 0")
+    int updateAiAnalysis(@Param("id") Long id, @Param("aiAnalysis") String aiAnalysis);
+    
     /**
      * 删除记录（逻辑删除）
      */
@@ -52,6 +52,11 @@ public class FortuneRecordPO {
      */
     private String ganZhi;
     
+    /**
+     * 八字编码
+     */
+    private Integer ganZhiCode;
+    
     /**
      * 五行分析
      */
@@ -1,5 +1,7 @@
 package com.fortune.infrastructure.persistence.repository;
 
+import com.fortune.domain.fortune.calendar.LunarCalendar;
+import com.fortune.domain.fortune.valueobject.GanZhi;
 import com.fortune.infrastructure.persistence.mapper.FortuneRecordMapper;
 import com.fortune.infrastructure.persistence.po.FortuneRecordPO;
 import com.fortune.interfaces.dto.response.FortuneCalculateResponse;
@@ -8,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -40,6 +43,8 @@ public class FortuneRecordRepository {
         record.setLunarDate(lunarDate);
         
         record.setGanZhi(ganZhi);
+        int ganZhiCode = GanZhi.parse(ganZhi).code();
+        record.setGanZhiCode(ganZhiCode != GanZhi.UNKNOWN_CODE ? ganZhiCode : null);
         record.setShengXiao(shengXiao);
         record.setWuXing(wuXingAnalysis);
         record.setWuXingLack(extractWuXingLack(wuXingAnalysis));
@@ -52,57 +57,16 @@ public class FortuneRecordRepository {
     
     /**
      * 转换公历日期为农历日期
-     * 这里使用简化的转换逻辑，实际项目中应该使用专业的农历转换库
      */
     private String convertToLunarDate(String gregorianDate) {
         try {
-            LocalDate date = LocalDate.parse(gregorianDate);
-            
-            // 简化的农历转换逻辑
-            // 实际应该使用农历转换算法或第三方库如 lunar-java
-            int year = date.getYear();
-            int month = date.getMonthValue();
-            int day = date.getDayOfMonth();
-            
-            // 这里使用简化的映射，实际项目中需要使用准确的农历转换
-            String[] lunarMonths = {
-                "正月", "二月", "三月", "四月", "五月", "六月",
-                "七月", "八月", "九月", "十月", "十一月", "十二月"
-            };
-            
-            // 简化处理：假设农历比公历晚一个月左右
-            int lunarMonth = month > 1 ? month - 1 : 12;
-            int lunarYear = month > 1 ? year : year - 1;
-            
-            String dayStr = formatLunarDay(day);
-            
-            return String.format("农历%d年%s%s", lunarYear, lunarMonths[lunarMonth - 1], dayStr);
-            
+            return LunarCalendar.fromSolar(LocalDate.parse(gregorianDate)).toChineseString();
         } catch (Exception e) {
             log.warn("农历日期转换失败，使用默认格式: {}", gregorianDate, e);
             return "农历" + gregorianDate.replace("-", "年").replaceFirst("年", "年") + "日";
         }
     }
     
-    /**
-     * 格式化农历日期
-     */
-    private String formatLunarDay(int day) {
-        if (day <= 10) {
-            String[] days = {"", "初一", "初二", "初三", "初四", "初五", 
-                           "初六", "初七", "初八", "初九", "初十"};
-            return days[day];
-        } else if (day < 20) {
-            return "十" + formatLunarDay(day - 10).substring(1);
-        } else if (day == 20) {
-            return "二十";
-        } else if (day < 30) {
-            return "廿" + formatLunarDay(day - 20).substring(1);
-        } else {
-            return "三十";
-        }
-    }
-    
     /**
      * 从五行分析中提取五行缺失信息
      */
@@ -171,6 +135,49 @@ public class FortuneRecordRepository {
         return record != null ? convertToResponse(record) : null;
     }
     
+    /**
+     * 获取记录所属的用户ID，记录不存在时返回null
+     */
+    public Long getOwnerId(Long id) {
+        FortuneRecordPO record = fortuneRecordMapper.selectById(id);
+        return record != null ? record.getUserId() : null;
+    }
+    
+    /**
+     * 根据ID批量获取记录，不存在的ID忽略
+     */
+    public List<FortuneCalculateResponse> getByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return fortuneRecordMapper.selectByIds(ids).stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+    
+    /**
+     * 统计日主为某天干的记录数
+     * 
+     * @param stem 天干序号（0甲 … 9癸）
+     */
+    public int countByDayMaster(int stem) {
+        return fortuneRecordMapper.countByGanZhiCodeRange(GanZhi.minCodeOfDayMaster(stem), GanZhi.minCodeOfDayMaster(stem + 1));
+    }
+    
+    /**
+     * 保存记录的AI分析结果
+     * 
+     * @return 记录不存在或已删除时返回false
+     */
+    public boolean updateAiAnalysis(Long id, String aiAnalysis) {
+        return fortuneRecordMapper.updateAiAnalysis(id, aiAnalysis) > 0;
+    }
+    
+    /**
+     * 统计没有八字编码、无法按日主统计的记录数
+     */
+    public int countWithoutGanZhiCode() {
+        return fortuneRecordMapper.countWithoutGanZhiCode();
+    }
+    
     /**
      * 删除记录
      */
@@ -189,6 +196,7 @@ public class FortuneRecordRepository {
         response.setBirthTime(po.getBirthTime());
         response.setLunar(po.getLunarDate());
         response.setGanZhi(po.getGanZhi());
+        response.setGanZhiCode(po.getGanZhiCode());
         response.setWuXing(po.getWuXing());
         response.setWuXingLack(po.getWuXingLack() != null ? po.getWuXingLack() : "无");
         response.setShengXiao(po.getShengXiao());
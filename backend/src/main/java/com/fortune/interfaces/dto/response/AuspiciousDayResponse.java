@@ -0,0 +1,51 @@
+package com.fortune.interfaces.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * 择日结果
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuspiciousDayResponse {
+
+    /**
+     * 公历日期，如"2025-05-16"
+     */
+    private String date;
+
+    /**
+     * 农历日期
+     */
+    private String lunar;
+
+    /**
+     * 日柱
+     */
+    private String dayGanZhi;
+
+    /**
+     * 建除十二值，如"成"
+     */
+    private String officer;
+
+    /**
+     * 得分
+     */
+    private Integer score;
+
+    /**
+     * 得分依据
+     */
+    private List<String> reasons;
+}
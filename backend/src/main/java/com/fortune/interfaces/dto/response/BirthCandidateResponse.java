@@ -0,0 +1,39 @@
+package com.fortune.interfaces.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * 八字反查候选出生时段
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BirthCandidateResponse {
+
+    /**
+     * 出生日期，可直接用于排盘
+     */
+    private String birthDate;
+
+    /**
+     * 出生时辰，如"巳时"，未给时柱时为空
+     */
+    private String birthTime;
+
+    /**
+     * 时段起点（北京时间，含），如"1990-05-15 09:00"
+     */
+    private String start;
+
+    /**
+     * 时段终点（北京时间，不含）
+     */
+    private String end;
+}
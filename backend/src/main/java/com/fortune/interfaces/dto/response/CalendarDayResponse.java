@@ -0,0 +1,74 @@
+package com.fortune.interfaces.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * 万年历单日
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarDayResponse {
+
+    /**
+     * 公历日期，如"2024-02-04"
+     */
+    private String date;
+
+    /**
+     * 星期（1-7，周一为1）
+     */
+    private Integer weekday;
+
+    /**
+     * 农历年
+     */
+    private Integer lunarYear;
+
+    /**
+     * 农历月，如"正月"、"闰五月"
+     */
+    private String lunarMonth;
+
+    /**
+     * 农历日，如"初一"
+     */
+    private String lunarDay;
+
+    /**
+     * 当日交节的节气名称，无则为空
+     */
+    private String solarTerm;
+
+    /**
+     * 交节时刻（北京时间HH:mm），无则为空
+     */
+    private String solarTermTime;
+
+    /**
+     * 年柱（以立春为界）
+     */
+    private String yearGanZhi;
+
+    /**
+     * 月柱（以节为界，交节当日取新月柱）
+     */
+    private String monthGanZhi;
+
+    /**
+     * 日柱
+     */
+    private String dayGanZhi;
+
+    /**
+     * 生肖（随年柱）
+     */
+    private String shengXiao;
+}
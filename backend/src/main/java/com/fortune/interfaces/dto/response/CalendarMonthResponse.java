@@ -0,0 +1,36 @@
+package com.fortune.interfaces.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * 万年历月视图
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarMonthResponse {
+
+    /**
+     * 公历年
+     */
+    private Integer year;
+
+    /**
+     * 公历月
+     */
+    private Integer month;
+
+    /**
+     * 当月每一天
+     */
+    private List<CalendarDayResponse> days;
+}
@@ -0,0 +1,76 @@
+package com.fortune.interfaces.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * 合婚评分响应
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CompatibilityResponse {
+
+    /**
+     * 命理记录ID
+     */
+    private Long recordId;
+
+    /**
+     * 姓名
+     */
+    private String userName;
+
+    /**
+     * 天干地支
+     */
+    private String ganZhi;
+
+    /**
+     * 对方命理记录ID
+     */
+    private Long otherRecordId;
+
+    /**
+     * 对方姓名
+     */
+    private String otherUserName;
+
+    /**
+     * 对方天干地支
+     */
+    private String otherGanZhi;
+
+    /**
+     * 综合得分（0-100）
+     */
+    private Integer score;
+
+    /**
+     * 评级：上等婚配、中等婚配、下等婚配
+     */
+    private String level;
+
+    /**
+     * 四柱合冲刑害得分（0-100）
+     */
+    private Integer relationScore;
+
+    /**
+     * 五行互补得分（0-100）
+     */
+    private Integer complementScore;
+
+    /**
+     * 逐柱关系，如["日柱地支六合", "年柱地支相冲"]
+     */
+    private List<String> relations;
+}
@@ -0,0 +1,53 @@
+package com.fortune.interfaces.dto.response;
+
+import com.fortune.domain.fortune.valueobject.DaYun;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 大运流年响应
+ * 
+ * @author fortune
+ * @since 2024-01-01
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DaYunResponse {
+    
+    /**
+     * 命理记录ID
+     */
+    private Long recordId;
+    
+    /**
+     * 天干地支
+     */
+    private String ganZhi;
+    
+    /**
+     * 排运方向：顺行、逆行
+     */
+    private String direction;
+    
+    /**
+     * 起运岁数，如"3岁4个月"
+     */
+    private String startAge;
+    
+    /**
+     * 起运日期
+     */
+    private LocalDate startDate;
+    
+    /**
+     * 本次返回的大运（按请求的起始步数和步数截取）
+     */
+    private List<DaYun> daYun;
+}
@@ -1,5 +1,6 @@
 package com.fortune.interfaces.dto.response;
 
+import com.fortune.domain.fortune.valueobject.WuXingAnalysis;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -40,6 +41,11 @@ public class FortuneCalculateResponse {
      */
     private String birthTime;
     
+    /**
+     * 真太阳时，如"1990-05-15 09:47"，只在按钟点和出生地点校正时给出
+     */
+    private String trueSolarTime;
+    
     /**
      * 农历日期
      */
@@ -50,6 +56,11 @@ public class FortuneCalculateResponse {
      */
     private String ganZhi;
     
+    /**
+     * 八字编码，见 GanZhi#code()
+     */
+    private Integer ganZhiCode;
+    
     /**
      * 五行属性
      */
@@ -60,6 +71,16 @@ public class FortuneCalculateResponse {
      */
     private String wuXingLack;
     
+    /**
+     * 五行分析（藏干、月令旺衰、平衡度）
+     */
+    private WuXingAnalysis wuXingAnalysis;
+    
+    /**
+     * 神煞，如["天乙贵人", "驿马"]
+     */
+    private List<String> shenSha;
+    
     /**
      * 生肖
      */
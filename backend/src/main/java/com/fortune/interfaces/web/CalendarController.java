@@ -0,0 +1,66 @@
+package com.fortune.interfaces.web;
+
+import com.fortune.application.service.CalendarApplicationService;
+import com.fortune.interfaces.dto.response.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 万年历控制器
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@RestController
+@RequestMapping("/calendar")
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarController {
+
+    /**
+     * 月视图只取决于年月和历表，客户端可长期缓存；历表修订后ETag随内容变化
+     */
+    private static final CacheControl MONTH_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic();
+
+    private final CalendarApplicationService calendarApplicationService;
+
+    /**
+     * 万年历月视图：农历、节气、干支
+     */
+    @GetMapping("/{year}/{month}")
+    public ResponseEntity<?> getMonth(@PathVariable Integer year, @PathVariable Integer month,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            CalendarApplicationService.SerializedMonth serialized = calendarApplicationService.getMonth(year, month);
+            if (ifNoneMatch != null && (ifNoneMatch.contains(serialized.getETag()) || "*".equals(ifNoneMatch.trim()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(serialized.getETag())
+                        .cacheControl(MONTH_CACHE_CONTROL)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(serialized.getETag())
+                    .cacheControl(MONTH_CACHE_CONTROL)
+                    .body(serialized.getBody());
+        } catch (IllegalArgumentException e) {
+            log.warn("获取万年历参数错误，{}年{}月", year, month, e);
+            return ResponseEntity.ok(ApiResponse.error("参数错误：" + e.getMessage()));
+        } catch (Exception e) {
+            log.error("获取万年历失败，{}年{}月", year, month, e);
+            return ResponseEntity.ok(ApiResponse.error("获取万年历失败：" + e.getMessage()));
+        }
+    }
+}
@@ -1,17 +1,42 @@
 package com.fortune.interfaces.web;
 
+import com.fortune.application.service.AnalysisStreamService;
 import com.fortune.application.service.FortuneApplicationService;
+import com.fortune.application.service.FortuneBatchService;
+import com.fortune.domain.fortune.calendar.GanZhiCycle;
+import com.fortune.domain.fortune.calendar.LunarCalendar;
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.service.BaZiEngine;
+import com.fortune.domain.fortune.service.DaYunTimeline;
+import com.fortune.domain.fortune.valueobject.BirthInfo;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import com.fortune.domain.fortune.valueobject.WuXingAnalysis;
 import com.fortune.infrastructure.persistence.repository.FortuneRecordRepository;
 import com.fortune.interfaces.dto.response.ApiResponse;
+import com.fortune.interfaces.dto.response.AuspiciousDayResponse;
+import com.fortune.interfaces.dto.response.BirthCandidateResponse;
+import com.fortune.interfaces.dto.response.CompatibilityResponse;
+import com.fortune.interfaces.dto.response.DaYunResponse;
 import com.fortune.interfaces.dto.response.FortuneCalculateResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 /**
  * 命理控制器
@@ -26,18 +51,47 @@ import java.util.Map;
 public class FortuneController {
     
     private final FortuneApplicationService fortuneApplicationService;
+    private final FortuneBatchService fortuneBatchService;
     private final FortuneRecordRepository fortuneRecordRepository;
+    private final AnalysisStreamService analysisStreamService;
     
     /**
-     * 获取今日运势
+     * 合婚排名一次最多对比的记录数
+     */
+    private static final int MAX_COMPATIBILITY_CANDIDATES = 200;
+    
+    /**
+     * 择日最多返回的天数
+     */
+    private static final int MAX_ZE_RI_TOP = 50;
+    
+    /**
+     * 异步生成AI分析的最长等待时间（排队 + 跨节点等待 + 调用）
+     */
+    private static final long ANALYSIS_TIMEOUT_MS = 60000;
+    
+    /**
+     * 按日主统计中未计入各天干的记录数的键
+     */
+    private static final String UNKNOWN_DAY_MASTER = "未知";
+    
+    /**
+     * 获取今日运势，传入命理记录ID时按该记录的八字给出个人运势
      */
     @GetMapping("/today-fortune")
-    public ApiResponse<String> getTodayFortune() {
-        log.info("获取今日运势");
+    public ApiResponse<String> getTodayFortune(@RequestParam(required = false) Long recordId) {
+        log.info("获取今日运势，记录ID：{}", recordId);
         
         try {
-            String fortune = fortuneApplicationService.getTodayFortune();
-            return ApiResponse.success(fortune);
+            if (recordId == null) {
+                return ApiResponse.success(fortuneApplicationService.getTodayFortune());
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                return ApiResponse.error("记录不存在");
+            }
+            return ApiResponse.success(fortuneApplicationService.getTodayFortune(record));
         } catch (DataAccessException e) {
             log.error("获取今日运势时数据库异常", e);
             return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
@@ -49,6 +103,8 @@ public class FortuneController {
     
     /**
      * 八字测算
+     * 
+     * 出生日期传公历 birthDate，或传农历 lunarYear、lunarMonth、lunarDay（闰月加 isLeapMonth: true）
      */
     @PostMapping("/calculate")
     public ApiResponse<FortuneCalculateResponse> calculate(@RequestBody Map<String, Object> request) {
@@ -60,11 +116,15 @@ public class FortuneController {
             String userName = request.get("userName") != null ? (String) request.get("userName") : (String) request.get("name");
             String birthDate = (String) request.get("birthDate");
             String birthTime = (String) request.get("birthTime");
+            String birthPlace = (String) request.get("birthPlace");
             
             // 验证必需参数
             if (userName == null || userName.trim().isEmpty()) {
                 return ApiResponse.error("姓名不能为空");
             }
+            if ((birthDate == null || birthDate.trim().isEmpty()) && request.get("lunarYear") != null) {
+                birthDate = lunarBirthDate(request).toString();
+            }
             if (birthDate == null || birthDate.trim().isEmpty()) {
                 return ApiResponse.error("出生日期不能为空");
             }
@@ -73,29 +133,25 @@ public class FortuneController {
             }
             
             // 先计算命理信息，不依赖数据库
-            Map<String, Object> result = calculateFortune(userName, birthDate, birthTime);
+            FortuneCalculateResponse response = fortuneApplicationService.calculateChart(
+                    java.time.LocalDate.parse(birthDate), birthTime, birthPlace);
             
-            // 构建响应对象(先不设置ID，以防数据库操作失败)
-            FortuneCalculateResponse response = new FortuneCalculateResponse();
+            // 补充用户信息(先不设置ID，以防数据库操作失败)
             response.setUserName(userName);
             response.setBirthDate(birthDate);
             response.setBirthTime(birthTime);
-            response.setLunar((String) result.get("lunar"));
-            response.setGanZhi((String) result.get("ganZhi"));
-            response.setWuXing((String) result.get("wuXing"));
-            response.setWuXingLack((String) result.get("wuXingLack"));
-            response.setShengXiao((String) result.get("shengXiao"));
-            response.setAiAnalysis((String) result.get("aiAnalysis"));
+            response.setAiAnalysis(generateSimpleAnalysis(userName, response.getGanZhi(), response.getShengXiao(),
+                                                           response.getWuXingAnalysis()));
             response.setCreateTime(java.time.LocalDateTime.now());
             
             try {
                 // 保存到数据库
                 Long recordId = fortuneRecordRepository.saveFortuneRecord(
                     userId, userName, birthDate, birthTime,
-                    (String) result.get("ganZhi"),
-                    (String) result.get("shengXiao"),
-                    (String) result.get("wuXing"),
-                    (String) result.get("aiAnalysis")
+                    response.getGanZhi(),
+                    response.getShengXiao(),
+                    response.getWuXing(),
+                    response.getAiAnalysis()
                 );
                 
                 // 设置记录ID
@@ -121,6 +177,23 @@ public class FortuneController {
         }
     }
     
+    /**
+     * 批量八字测算
+     * 
+     * 请求体为CSV（编号,出生日期,出生时辰），响应为NDJSON流，每行一个结果；
+     * 只做确定性排盘，不调用AI、不保存记录
+     */
+    @PostMapping(value = "/calculate/batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> calculateBatch(HttpServletRequest request) throws IOException {
+        log.info("开始批量八字测算，请求体大小：{}", request.getContentLengthLong());
+        
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> fortuneBatchService.calculateBatch(in, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .body(body);
+    }
+    
     /**
      * 获取用户历史记录
      */
@@ -191,6 +264,299 @@ public class FortuneController {
         }
     }
     
+    /**
+     * 获取历史记录的大运流年
+     */
+    @GetMapping("/history/{recordId}/da-yun")
+    public ApiResponse<DaYunResponse> getDaYun(@PathVariable Long recordId,
+                                               @RequestParam String gender,
+                                               @RequestParam(defaultValue = "0") Integer from,
+                                               @RequestParam(defaultValue = "3") Integer count) {
+        log.info("获取大运流年，记录ID：{}，性别：{}，起始步数：{}，步数：{}", recordId, gender, from, count);
+        
+        try {
+            // 参数验证
+            if (recordId == null || recordId <= 0) {
+                return ApiResponse.error("记录ID无效");
+            }
+            if (from < 0 || from >= DaYunTimeline.MAX_STEPS) {
+                return ApiResponse.error("大运起始步数超出范围(0-" + (DaYunTimeline.MAX_STEPS - 1) + ")");
+            }
+            if (count <= 0 || count > DaYunTimeline.MAX_STEPS) {
+                count = 3;
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                return ApiResponse.error("记录不存在");
+            }
+            
+            BirthInfo birthInfo = BirthInfo.of(java.time.LocalDate.parse(record.getBirthDate()), record.getBirthTime(), record.getUserName());
+            birthInfo.setGender(gender);
+            
+            return ApiResponse.success(fortuneApplicationService.calculateDaYun(
+                    recordId, record.getGanZhi(), birthInfo, from, count));
+            
+        } catch (DataAccessException e) {
+            log.error("获取大运流年时数据库异常，记录ID：{}", recordId, e);
+            return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
+        } catch (IllegalArgumentException e) {
+            log.warn("获取大运流年参数错误，记录ID：{}", recordId, e);
+            return ApiResponse.error("参数错误：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("获取大运流年失败，记录ID：{}", recordId, e);
+            return ApiResponse.error("获取大运流年失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 八字反查：由四柱求可能的出生时段（1900-2100），时柱可省略
+     */
+    @GetMapping("/reverse-lookup")
+    public ApiResponse<List<BirthCandidateResponse>> reverseLookup(@RequestParam String yearPillar,
+                                                                   @RequestParam String monthPillar,
+                                                                   @RequestParam String dayPillar,
+                                                                   @RequestParam(required = false) String hourPillar) {
+        log.info("八字反查：{} {} {} {}", yearPillar, monthPillar, dayPillar, hourPillar);
+        
+        try {
+            return ApiResponse.success(fortuneApplicationService.reverseLookup(yearPillar, monthPillar, dayPillar, hourPillar));
+        } catch (IllegalArgumentException e) {
+            log.warn("八字反查参数错误", e);
+            return ApiResponse.error("参数错误：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("八字反查失败", e);
+            return ApiResponse.error("八字反查失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 两条历史记录合婚
+     */
+    @GetMapping("/history/{recordId}/compatibility/{otherRecordId}")
+    public ApiResponse<CompatibilityResponse> getCompatibility(@PathVariable Long recordId,
+                                                               @PathVariable Long otherRecordId) {
+        log.info("合婚评分，记录ID：{}，对方记录ID：{}", recordId, otherRecordId);
+        
+        try {
+            if (recordId == null || recordId <= 0 || otherRecordId == null || otherRecordId <= 0) {
+                return ApiResponse.error("记录ID无效");
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            FortuneCalculateResponse other = fortuneRecordRepository.getById(otherRecordId);
+            if (record == null || other == null) {
+                return ApiResponse.error("记录不存在");
+            }
+            
+            return ApiResponse.success(fortuneApplicationService.calculateCompatibility(record, other));
+            
+        } catch (DataAccessException e) {
+            log.error("合婚评分时数据库异常，记录ID：{}", recordId, e);
+            return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
+        } catch (IllegalArgumentException e) {
+            log.warn("合婚评分参数错误，记录ID：{}", recordId, e);
+            return ApiResponse.error("参数错误：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("合婚评分失败，记录ID：{}", recordId, e);
+            return ApiResponse.error("合婚评分失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 一条历史记录与多条记录合婚排名
+     * 
+     * 请求体：recordIds 对比的记录ID列表，不传时取 userId 的全部历史记录，userId 也不传时取该记录所属用户的；
+     * top 返回前几名，默认5
+     */
+    @PostMapping("/history/{recordId}/compatibility")
+    public ApiResponse<List<CompatibilityResponse>> rankCompatibility(@PathVariable Long recordId,
+                                                                      @RequestBody Map<String, Object> request) {
+        log.info("合婚排名，记录ID：{}，请求参数：{}", recordId, request);
+        
+        try {
+            if (recordId == null || recordId <= 0) {
+                return ApiResponse.error("记录ID无效");
+            }
+            int top = request.get("top") != null ? Integer.parseInt(request.get("top").toString()) : 5;
+            if (top <= 0 || top > MAX_COMPATIBILITY_CANDIDATES) {
+                top = 5;
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                return ApiResponse.error("记录不存在");
+            }
+            
+            List<FortuneCalculateResponse> candidates;
+            Object recordIds = request.get("recordIds");
+            if (recordIds instanceof List && !((List<?>) recordIds).isEmpty()) {
+                List<?> ids = (List<?>) recordIds;
+                if (ids.size() > MAX_COMPATIBILITY_CANDIDATES) {
+                    return ApiResponse.error("对比记录不能超过" + MAX_COMPATIBILITY_CANDIDATES + "条");
+                }
+                List<Long> candidateIds = new ArrayList<>(ids.size());
+                for (Object id : ids) {
+                    candidateIds.add(Long.valueOf(id.toString()));
+                }
+                candidates = fortuneRecordRepository.getByIds(candidateIds);
+            } else {
+                Long userId = request.get("userId") != null ? Long.valueOf(request.get("userId").toString())
+                              : fortuneRecordRepository.getOwnerId(recordId);
+                if (userId == null) {
+                    return ApiResponse.error("记录未关联用户，请指定 recordIds 或 userId");
+                }
+                candidates = fortuneRecordRepository.getUserHistory(userId, 1, MAX_COMPATIBILITY_CANDIDATES);
+            }
+            candidates.removeIf(candidate -> recordId.equals(candidate.getId()));
+            
+            return ApiResponse.success(fortuneApplicationService.rankCompatibility(record, candidates, top));
+            
+        } catch (DataAccessException e) {
+            log.error("合婚排名时数据库异常，记录ID：{}", recordId, e);
+            return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
+        } catch (IllegalArgumentException e) {
+            log.warn("合婚排名参数错误，记录ID：{}", recordId, e);
+            return ApiResponse.error("参数错误：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("合婚排名失败，记录ID：{}", recordId, e);
+            return ApiResponse.error("合婚排名失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 择日：按历史记录的八字为嫁娶、搬家、签约等用途挑选吉日
+     * 
+     * @param purpose 用途，如"嫁娶"、"move"
+     * @param from    开始日期（含），默认北京时间今天
+     * @param to      结束日期（含），默认开始日期后一年
+     */
+    @GetMapping("/history/{recordId}/ze-ri")
+    public ApiResponse<List<AuspiciousDayResponse>> selectDays(@PathVariable Long recordId,
+                                                               @RequestParam String purpose,
+                                                               @RequestParam(required = false) String from,
+                                                               @RequestParam(required = false) String to,
+                                                               @RequestParam(defaultValue = "10") Integer top) {
+        log.info("择日，记录ID：{}，用途：{}，区间：{} ~ {}", recordId, purpose, from, to);
+        
+        try {
+            if (recordId == null || recordId <= 0) {
+                return ApiResponse.error("记录ID无效");
+            }
+            if (top == null || top <= 0 || top > MAX_ZE_RI_TOP) {
+                top = 10;
+            }
+            java.time.LocalDate fromDate = from != null && !from.isEmpty()
+                    ? java.time.LocalDate.parse(from) : java.time.LocalDate.now(SolarTerms.BEIJING);
+            java.time.LocalDate toDate = to != null && !to.isEmpty()
+                    ? java.time.LocalDate.parse(to) : fromDate.plusYears(1);
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                return ApiResponse.error("记录不存在");
+            }
+            
+            return ApiResponse.success(fortuneApplicationService.selectDays(record, purpose, fromDate, toDate, top));
+            
+        } catch (DataAccessException e) {
+            log.error("择日时数据库异常，记录ID：{}", recordId, e);
+            return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
+        } catch (java.time.format.DateTimeParseException e) {
+            log.warn("择日日期格式错误：{} ~ {}", from, to);
+            return ApiResponse.error("日期格式错误，应为yyyy-MM-dd");
+        } catch (IllegalArgumentException e) {
+            log.warn("择日参数错误，记录ID：{}", recordId, e);
+            return ApiResponse.error("参数错误：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("择日失败，记录ID：{}", recordId, e);
+            return ApiResponse.error("择日失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 生成历史记录的AI命理分析并保存到该记录
+     * 
+     * 在DeepSeek调用线程池中异步执行，等待期间不占用Tomcat工作线程；线程池已满时立即返回繁忙
+     */
+    @PostMapping("/history/{recordId}/analysis")
+    public DeferredResult<ApiResponse<String>> generateAnalysis(@PathVariable Long recordId) {
+        log.info("生成AI分析，记录ID：{}", recordId);
+        
+        DeferredResult<ApiResponse<String>> result = new DeferredResult<>(ANALYSIS_TIMEOUT_MS,
+                ApiResponse.error("生成AI分析超时，请稍后重试"));
+        try {
+            if (recordId == null || recordId <= 0) {
+                result.setResult(ApiResponse.error("记录ID无效"));
+                return result;
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                result.setResult(ApiResponse.error("记录不存在"));
+                return result;
+            }
+            
+            fortuneApplicationService.generateFortuneAnalysisAsync(record).whenComplete((analysis, e) -> {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TaskRejectedException) {
+                        log.warn("DeepSeek调用线程池已满，记录ID：{}", recordId);
+                        result.setResult(ApiResponse.error("服务繁忙，请稍后重试"));
+                    } else {
+                        log.error("生成AI分析失败，记录ID：{}", recordId, cause);
+                        result.setResult(ApiResponse.error("生成AI分析失败：" + cause.getMessage()));
+                    }
+                    return;
+                }
+                try {
+                    fortuneRecordRepository.updateAiAnalysis(recordId, analysis);
+                    result.setResult(ApiResponse.success(analysis));
+                } catch (DataAccessException ex) {
+                    log.error("保存AI分析到数据库失败，记录ID：{}", recordId, ex);
+                    result.setResult(ApiResponse.successWithWarning(analysis, "分析已生成，但未能保存到数据库"));
+                }
+            });
+            
+        } catch (DataAccessException e) {
+            log.error("生成AI分析时数据库异常，记录ID：{}", recordId, e);
+            result.setResult(ApiResponse.error("数据库服务暂时不可用，请稍后重试"));
+        } catch (Exception e) {
+            log.error("生成AI分析失败，记录ID：{}", recordId, e);
+            result.setResult(ApiResponse.error("生成AI分析失败：" + e.getMessage()));
+        }
+        return result;
+    }
+    
+    /**
+     * 以SSE流式推送历史记录的AI命理分析，输出结束后保存到该记录
+     * 
+     * 事件：delta（增量文本）、done（recordId、saved）、error（错误信息）
+     */
+    @GetMapping(value = "/history/{recordId}/analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalysis(@PathVariable Long recordId) {
+        log.info("流式生成AI分析，记录ID：{}", recordId);
+        
+        try {
+            if (recordId == null || recordId <= 0) {
+                return analysisStreamService.error("记录ID无效");
+            }
+            
+            FortuneCalculateResponse record = fortuneRecordRepository.getById(recordId);
+            if (record == null) {
+                return analysisStreamService.error("记录不存在");
+            }
+            
+            return analysisStreamService.stream(record);
+            
+        } catch (DataAccessException e) {
+            log.error("流式生成AI分析时数据库异常，记录ID：{}", recordId, e);
+            return analysisStreamService.error("数据库服务暂时不可用，请稍后重试");
+        } catch (Exception e) {
+            log.error("流式生成AI分析失败，记录ID：{}", recordId, e);
+            return analysisStreamService.error("生成AI分析失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 获取AI推荐姓名
      */
@@ -229,8 +595,14 @@ public class FortuneController {
                 return ApiResponse.error("出生日期超出范围(1-31)");
             }
             
+            int hourBranch = birthHour != null ? birthHour : 0;
+            if (hourBranch < 0 || hourBranch > 11) {
+                return ApiResponse.error("出生时辰超出范围(0-11)");
+            }
+            
             // 根据出生信息计算五行缺失
-            String wuXingLack = calculateWuXingLack(birthYear, birthMonth, birthDay, birthHour != null ? birthHour : 0);
+            GanZhi chart = BaZiEngine.calculate(java.time.LocalDate.of(birthYear, birthMonth, birthDay), hourBranch);
+            String wuXingLack = BaZiEngine.formatLack(BaZiEngine.lackMask(BaZiEngine.countWuXing(chart)));
             
             // 生成推荐姓名
             java.util.List<String> recommendedNames = generateRecommendNames(surname, gender, wuXingLack);
@@ -262,95 +634,17 @@ public class FortuneController {
     }
     
     /**
-     * 计算五行缺失
-     */
-    private String calculateWuXingLack(int year, int month, int day, int hour) {
-        // 精确的五行计算逻辑，基于天干地支
-        
-        // 天干五行：甲乙木，丙丁火，戊己土，庚辛金，壬癸水
-        String[] tianGan = {"甲", "乙", "丙", "丁", "戊", "己", "庚", "辛", "壬", "癸"};
-        String[] tianGanWuXing = {"木", "木", "火", "火", "土", "土", "金", "金", "水", "水"};
-        
-        // 地支五行：寅卯木，巳午火，申酉金，亥子水，辰戌丑未土
-        String[] diZhi = {"子", "丑", "寅", "卯", "辰", "巳", "午", "未", "申", "酉", "戌", "亥"};
-        String[] diZhiWuXing = {"水", "土", "木", "木", "土", "火", "火", "土", "金", "金", "土", "水"};
-        
-        java.util.Map<String, Integer> wuXingCount = new java.util.HashMap<>();
-        wuXingCount.put("金", 0);
-        wuXingCount.put("木", 0);
-        wuXingCount.put("水", 0);
-        wuXingCount.put("火", 0);
-        wuXingCount.put("土", 0);
-        
-        // 年柱
-        int yearGanIndex = (year - 4) % 10;
-        int yearZhiIndex = (year - 4) % 12;
-        wuXingCount.put(tianGanWuXing[yearGanIndex], wuXingCount.get(tianGanWuXing[yearGanIndex]) + 1);
-        wuXingCount.put(diZhiWuXing[yearZhiIndex], wuXingCount.get(diZhiWuXing[yearZhiIndex]) + 1);
-        
-        // 月柱
-        int monthGanIndex = (yearGanIndex * 2 + month) % 10;
-        int monthZhiIndex = (month + 1) % 12;
-        wuXingCount.put(tianGanWuXing[monthGanIndex], wuXingCount.get(tianGanWuXing[monthGanIndex]) + 1);
-        wuXingCount.put(diZhiWuXing[monthZhiIndex], wuXingCount.get(diZhiWuXing[monthZhiIndex]) + 1);
-        
-        // 日柱
-        int dayOffset = calculateDayOffset(year, month, day);
-        int dayGanIndex = dayOffset % 10;
-        int dayZhiIndex = dayOffset % 12;
-        wuXingCount.put(tianGanWuXing[dayGanIndex], wuXingCount.get(tianGanWuXing[dayGanIndex]) + 1);
-        wuXingCount.put(diZhiWuXing[dayZhiIndex], wuXingCount.get(diZhiWuXing[dayZhiIndex]) + 1);
-        
-        // 时柱
-        int timeGanIndex = (dayGanIndex * 2 + hour) % 10;
-        int timeZhiIndex = hour;
-        wuXingCount.put(tianGanWuXing[timeGanIndex], wuXingCount.get(tianGanWuXing[timeGanIndex]) + 1);
-        wuXingCount.put(diZhiWuXing[timeZhiIndex], wuXingCount.get(diZhiWuXing[timeZhiIndex]) + 1);
-        
-        // 找出缺失的五行
-        java.util.List<String> lackWuXing = new java.util.ArrayList<>();
-        for (String wx : new String[]{"金", "木", "水", "火", "土"}) {
-            if (wuXingCount.get(wx) == 0) {
-                lackWuXing.add(wx);
-            }
-        }
-        
-        return lackWuXing.isEmpty() ? "无" : String.join("", lackWuXing);
-    }
-    
-    /**
-     * 计算日期偏移量（用于日柱计算）
+     * 农历生日转公历：lunarYear、lunarMonth、lunarDay，闰月时 isLeapMonth 为 true
      */
-    private int calculateDayOffset(int year, int month, int day) {
-        // 简化的日期偏移计算，实际应该使用更精确的万年历算法
-        int totalDays = 0;
-        
-        // 年份天数
-        for (int y = 1900; y < year; y++) {
-            totalDays += isLeapYear(y) ? 366 : 365;
-        }
-        
-        // 月份天数
-        int[] monthDays = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
-        if (isLeapYear(year)) {
-            monthDays[1] = 29;
+    private java.time.LocalDate lunarBirthDate(Map<String, Object> request) {
+        if (request.get("lunarMonth") == null || request.get("lunarDay") == null) {
+            throw new IllegalArgumentException("农历生日需同时提供年、月、日");
         }
-        
-        for (int m = 1; m < month; m++) {
-            totalDays += monthDays[m - 1];
-        }
-        
-        totalDays += day;
-        
-        // 1900年1月1日为甲子日，偏移量为0
-        return (totalDays - 1) % 60;
-    }
-    
-    /**
-     * 判断是否为闰年
-     */
-    private boolean isLeapYear(int year) {
-        return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+        int lunarYear = Integer.parseInt(request.get("lunarYear").toString());
+        int lunarMonth = Integer.parseInt(request.get("lunarMonth").toString());
+        int lunarDay = Integer.parseInt(request.get("lunarDay").toString());
+        boolean leap = request.get("isLeapMonth") != null && Boolean.parseBoolean(request.get("isLeapMonth").toString());
+        return LunarCalendar.toSolar(lunarYear, lunarMonth, lunarDay, leap);
     }
     
     /**
@@ -421,99 +715,48 @@ public class FortuneController {
         return fullNames;
     }
     
-    /**
-     * 计算命理信息（临时方法，后续应该整合到应用服务中）
-     */
-    private Map<String, Object> calculateFortune(String userName, String birthDate, String birthTime) {
-        // 这里复用TestFortuneController的计算逻辑
-        // 实际应该重构到应用服务中
-        
-        java.time.LocalDate birth = java.time.LocalDate.parse(birthDate);
-        int year = birth.getYear();
-        int month = birth.getMonthValue();
-        int day = birth.getDayOfMonth();
-        
-        Map<String, Object> result = new HashMap<>();
-        
-        // 简化的八字计算
-        String ganZhi = calculateGanZhi(year, month, day, birthTime);
-        String shengXiao = calculateShengXiao(year);
-        String lunar = calculateLunar(year, month, day);
-        String wuXing = "木2个 火1个 土2个 金1个 水2个"; // 简化处理
-        String wuXingLack = "无"; // 简化处理
-        String aiAnalysis = generateSimpleAnalysis(userName, ganZhi, shengXiao);
-        
-        result.put("ganZhi", ganZhi);
-        result.put("shengXiao", shengXiao);
-        result.put("lunar", lunar);
-        result.put("wuXing", wuXing);
-        result.put("wuXingLack", wuXingLack);
-        result.put("aiAnalysis", aiAnalysis);
-        
-        return result;
-    }
-    
-    private String calculateGanZhi(int year, int month, int day, String birthTime) {
-        // 简化的干支计算
-        String[] tianGan = {"甲", "乙", "丙", "丁", "戊", "己", "庚", "辛", "壬", "癸"};
-        String[] diZhi = {"子", "丑", "寅", "卯", "辰", "巳", "午", "未", "申", "酉", "戌", "亥"};
-        
-        int yearIndex = (year - 4) % 60;
-        String yearGan = tianGan[yearIndex % 10];
-        String yearZhi = diZhi[yearIndex % 12];
-        
-        int monthIndex = (month - 1) % 12;
-        String monthGan = tianGan[(yearIndex * 2 + month) % 10];
-        String monthZhi = diZhi[monthIndex];
-        
-        int dayIndex = (year * 365 + month * 30 + day) % 60;
-        String dayGan = tianGan[dayIndex % 10];
-        String dayZhi = diZhi[dayIndex % 12];
-        
-        String timeZhi = getTimeZhi(birthTime);
-        int timeZhiIndex = java.util.Arrays.asList(diZhi).indexOf(timeZhi);
-        String timeGan = tianGan[(dayIndex * 2 + timeZhiIndex) % 10];
-        
-        return String.format("%s%s %s%s %s%s %s%s", 
-                           yearGan, yearZhi, monthGan, monthZhi, 
-                           dayGan, dayZhi, timeGan, timeZhi);
-    }
-    
-    private String getTimeZhi(String birthTime) {
-        Map<String, String> timeMap = new HashMap<>();
-        timeMap.put("子时", "子"); timeMap.put("丑时", "丑"); timeMap.put("寅时", "寅"); timeMap.put("卯时", "卯");
-        timeMap.put("辰时", "辰"); timeMap.put("巳时", "巳"); timeMap.put("午时", "午"); timeMap.put("未时", "未");
-        timeMap.put("申时", "申"); timeMap.put("酉时", "酉"); timeMap.put("戌时", "戌"); timeMap.put("亥时", "亥");
-        return timeMap.getOrDefault(birthTime, "子");
-    }
-    
-    private String calculateShengXiao(int year) {
-        String[] shengXiao = {"鼠", "牛", "虎", "兔", "龙", "蛇", "马", "羊", "猴", "鸡", "狗", "猪"};
-        return shengXiao[(year - 4) % 12];
-    }
-    
-    private String calculateLunar(int year, int month, int day) {
-        String[] lunarMonths = {"正月", "二月", "三月", "四月", "五月", "六月", 
-                               "七月", "八月", "九月", "十月", "十一月", "十二月"};
-        int lunarMonth = (month + 10) % 12;
-        int lunarDay = (day + 15) % 30 + 1;
-        return String.format("农历%d年%s%s", year, lunarMonths[lunarMonth], 
-                           lunarDay < 10 ? "初" + lunarDay : 
-                           lunarDay < 20 ? "十" + (lunarDay - 10) : 
-                           lunarDay == 20 ? "二十" : "廿" + (lunarDay - 20));
-    }
-    
-    private String generateSimpleAnalysis(String userName, String ganZhi, String shengXiao) {
+    private String generateSimpleAnalysis(String userName, String ganZhi, String shengXiao, WuXingAnalysis analysis) {
+        String chartSummary = analysis == null ? ""
+                              : "命局概况：" + analysis.getDescription() + "。天干十神（年月日时）："
+                                + String.join(" ", analysis.getStemShiShen()) + "。\n\n";
         return String.format("%s，根据您的八字分析：\n\n" +
                            "您的天干地支为%s，生肖为%s。\n\n" +
+                           "%s" +
                            "性格特点：您性格温和，待人真诚，具有很强的责任心和上进心。\n\n" +
                            "事业发展：事业运势较好，建议稳扎稳打，循序渐进。\n\n" +
                            "财运状况：财运平稳，正财运较好，建议理性投资。\n\n" +
                            "感情婚姻：感情运势良好，建议多沟通理解，真诚待人。\n\n" +
                            "人生建议：保持积极乐观的心态，多学习充实自己。",
-                           userName, ganZhi, shengXiao);
+                           userName, ganZhi, shengXiao, chartSummary);
     }
 
+    /**
+     * 按日主统计记录数
+     * 
+     * 按八字编码区间统计；没有编码的记录（旧库未执行 sql/upgrade/gan_zhi_code.sql 回填，或 gan_zhi 无法解析）
+     * 以"未知"单独返回数量
+     */
+    @GetMapping("/stats/day-master")
+    public ApiResponse<Map<String, Integer>> countByDayMaster() {
+        log.info("按日主统计记录数");
+        
+        try {
+            Map<String, Integer> counts = new java.util.LinkedHashMap<>();
+            for (int stem = 0; stem < GanZhiCycle.TIAN_GAN.length; stem++) {
+                counts.put(GanZhiCycle.TIAN_GAN[stem], fortuneRecordRepository.countByDayMaster(stem));
+            }
+            // 没有八字编码的旧记录未计入各天干，单独返回，避免统计被悄悄低估
+            counts.put(UNKNOWN_DAY_MASTER, fortuneRecordRepository.countWithoutGanZhiCode());
+            return ApiResponse.success(counts);
+        } catch (DataAccessException e) {
+            log.error("按日主统计时数据库异常", e);
+            return ApiResponse.error("数据库服务暂时不可用，请稍后重试");
+        } catch (Exception e) {
+            log.error("按日主统计失败", e);
+            return ApiResponse.error("按日主统计失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 检查数据库表
      */
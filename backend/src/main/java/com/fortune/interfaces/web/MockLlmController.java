@@ -0,0 +1,116 @@
+package com.fortune.interfaces.web;
+
+import com.alibaba.fastjson.JSON;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地模拟大模型接口
+ *
+ * 按 chat/completions 格式返回固定分析内容（stream: true 时按SSE逐段输出），并按配置延迟响应，
+ * 用于在不消耗DeepSeek额度的情况下演练离线预生成、流式推送和压测。仅在 mock-llm 配置下启用，DeepSeek的 api-url 指向本接口、mock-mode 设为false。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+@RestController
+@RequestMapping("/mock-llm")
+@Profile("mock-llm")
+public class MockLlmController {
+
+    @Value("${fortune.mock-llm.delay-ms:200}")
+    private long delayMs;
+
+    /**
+     * 流式输出时每段的间隔
+     */
+    @Value("${fortune.mock-llm.chunk-delay-ms:50}")
+    private long chunkDelayMs;
+
+    private static final int STREAM_CHUNK = 4;
+
+    @PostMapping("/chat/completions")
+    public Object chatCompletions(@RequestBody Map<String, Object> request) throws InterruptedException {
+        String content = "【模拟分析】" + lastUserContent(request).length() + "字提示词的命理分析内容。";
+        if (Boolean.TRUE.equals(request.get("stream"))) {
+            return streamCompletion(request, content);
+        }
+        Thread.sleep(delayMs);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content);
+        Map<String, Object> choice = new HashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", "mock-" + System.nanoTime());
+        response.put("object", "chat.completion");
+        response.put("model", request.get("model"));
+        response.put("choices", Collections.singletonList(choice));
+        return response;
+    }
+
+    /**
+     * stream: true 时按SSE格式逐段输出 delta，首段前延迟 delay-ms，以 [DONE] 结束
+     */
+    private ResponseEntity<StreamingResponseBody> streamCompletion(Map<String, Object> request, String content) {
+        Object model = request.get("model");
+        StreamingResponseBody body = out -> {
+            try {
+                Thread.sleep(delayMs);
+                for (int start = 0; start < content.length(); start += STREAM_CHUNK) {
+                    Map<String, Object> delta = new HashMap<>();
+                    delta.put("content", content.substring(start, Math.min(content.length(), start + STREAM_CHUNK)));
+                    Map<String, Object> choice = new HashMap<>();
+                    choice.put("index", 0);
+                    choice.put("delta", delta);
+                    Map<String, Object> chunk = new HashMap<>();
+                    chunk.put("object", "chat.completion.chunk");
+                    chunk.put("model", model);
+                    chunk.put("choices", Collections.singletonList(choice));
+                    out.write(("data: " + JSON.toJSONString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(chunkDelayMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/event-stream;charset=UTF-8"))
+                .body(body);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String lastUserContent(Map<String, Object> request) {
+        Object messages = request.get("messages");
+        if (!(messages instanceof List) || ((List<?>) messages).isEmpty()) {
+            return "";
+        }
+        List<Object> list = (List<Object>) messages;
+        Object last = list.get(list.size() - 1);
+        if (last instanceof Map) {
+            Object content = ((Map<String, Object>) last).get("content");
+            return content != null ? content.toString() : "";
+        }
+        return "";
+    }
+}
@@ -42,6 +42,7 @@ CREATE TABLE `t_fortune_record` (
   `birth_time` varchar(20) COMMENT '出生时间',
   `lunar_date` varchar(50) COMMENT '农历日期',
   `gan_zhi` varchar(50) COMMENT '干支',
+  `gan_zhi_code` int(11) DEFAULT NULL COMMENT '八字编码：日干<<24|日柱<<18|年柱<<12|月柱<<6|时柱（六十甲子序号）',
   `wu_xing` varchar(100) COMMENT '五行分析',
   `wu_xing_lack` varchar(50) COMMENT '五行缺失',
   `sheng_xiao` varchar(10) COMMENT '生肖',
@@ -54,9 +55,21 @@ CREATE TABLE `t_fortune_record` (
   PRIMARY KEY (`id`),
   KEY `idx_user_id` (`user_id`),
   KEY `idx_create_time` (`create_time`),
-  KEY `idx_user_id_create_time` (`user_id`, `create_time` DESC)
+  KEY `idx_user_id_create_time` (`user_id`, `create_time` DESC),
+  KEY `idx_gan_zhi_code` (`gan_zhi_code`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='命理记录表';
 
+-- =====================================================
+-- AI分析结果表（按 提示词版本+八字编码 保存，离线预生成与线上调用共用）
+-- =====================================================
+CREATE TABLE `t_fortune_analysis` (
+  `cache_key` varchar(64) NOT NULL COMMENT '缓存键：fortune:analysis:提示词版本:八字编码',
+  `content` text NOT NULL COMMENT 'AI分析内容',
+  `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`cache_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='AI分析结果表';
+
 -- =====================================================
 -- VIP订单表 (与VipOrderMapper完全匹配)
 -- =====================================================
@@ -98,6 +111,9 @@ INSERT INTO `t_users` (`openid`, `nickname`, `avatar_url`, `vip_level`) VALUES
 CREATE INDEX `idx_fortune_record_user_time` ON `t_fortune_record`(`user_id`, `create_time` DESC);
 CREATE INDEX `idx_vip_orders_user_status` ON `t_vip_orders`(`user_id`, `status`);
 
+-- 已有库升级：执行 sql/upgrade/gan_zhi_code.sql，增加八字编码列和索引并按 gan_zhi 回填旧记录（可重复执行）
+-- 已有库升级：执行 sql/upgrade/fortune_analysis.sql，新增AI分析结果表 t_fortune_analysis（可重复执行）
+
 -- =====================================================
 -- 查看表结构 (用于验证)
 -- =====================================================
@@ -0,0 +1,17 @@
+-- =====================================================
+-- 已有库升级：新增AI分析结果表 t_fortune_analysis
+-- 数据库: MySQL 8.0+
+-- 说明: 可重复执行；表已存在时跳过。未建此表时 AnalysisCache 的数据库层读写全部失败，
+--       离线预生成无法保存结果，检查点停留在首个序号
+-- 执行: mysql -u<用户> -p fortune_db < fortune_analysis.sql
+-- =====================================================
+
+USE `fortune_db`;
+
+CREATE TABLE IF NOT EXISTS `t_fortune_analysis` (
+  `cache_key` varchar(64) NOT NULL COMMENT '缓存键：fortune:analysis:提示词版本:八字编码',
+  `content` text NOT NULL COMMENT 'AI分析内容',
+  `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`cache_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='AI分析结果表';
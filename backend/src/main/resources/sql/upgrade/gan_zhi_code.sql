@@ -0,0 +1,70 @@
+-- =====================================================
+-- 已有库升级：命理记录表增加八字编码列 gan_zhi_code 并回填旧记录
+-- 数据库: MySQL 8.0+
+-- 说明: 可重复执行；列和索引已存在时跳过，只回填编码为空且 gan_zhi 可解析的记录
+--       （gan_zhi 为"年柱 月柱 日柱 时柱"，编码 = 日干<<24 | 日柱<<18 | 年柱<<12 | 月柱<<6 | 时柱）
+-- 执行: mysql -u<用户> -p fortune_db < gan_zhi_code.sql
+-- =====================================================
+
+USE `fortune_db`;
+
+DROP PROCEDURE IF EXISTS `upgrade_gan_zhi_code`;
+DROP FUNCTION IF EXISTS `fortune_jia_zi`;
+
+DELIMITER //
+
+-- 干支名 -> 六十甲子序号，无效时为NULL
+CREATE FUNCTION `fortune_jia_zi`(pillar VARCHAR(8)) RETURNS INT
+    DETERMINISTIC NO SQL
+BEGIN
+    DECLARE stem INT DEFAULT LOCATE(SUBSTRING(pillar, 1, 1), '甲乙丙丁戊己庚辛壬癸') - 1;
+    DECLARE branch INT DEFAULT LOCATE(SUBSTRING(pillar, 2, 1), '子丑寅卯辰巳午未申酉戌亥') - 1;
+    IF pillar IS NULL OR CHAR_LENGTH(pillar) <> 2 OR stem < 0 OR branch < 0 OR MOD(stem, 2) <> MOD(branch, 2) THEN
+        RETURN NULL;
+    END IF;
+    RETURN MOD(6 * stem - 5 * branch + 60, 60);
+END //
+
+CREATE PROCEDURE `upgrade_gan_zhi_code`()
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = 't_fortune_record'
+                     AND column_name = 'gan_zhi_code') THEN
+        ALTER TABLE `t_fortune_record`
+            ADD COLUMN `gan_zhi_code` int(11) DEFAULT NULL
+                COMMENT '八字编码：日干<<24|日柱<<18|年柱<<12|月柱<<6|时柱（六十甲子序号）' AFTER `gan_zhi`;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = 't_fortune_record'
+                     AND index_name = 'idx_gan_zhi_code') THEN
+        ALTER TABLE `t_fortune_record` ADD KEY `idx_gan_zhi_code` (`gan_zhi_code`);
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL `upgrade_gan_zhi_code`();
+
+-- 回填：按空白拆出四柱，任一柱无效的记录保持为空
+UPDATE `t_fortune_record` r
+JOIN (
+    SELECT id,
+           `fortune_jia_zi`(SUBSTRING_INDEX(g, ' ', 1)) AS y,
+           `fortune_jia_zi`(SUBSTRING_INDEX(SUBSTRING_INDEX(g, ' ', 2), ' ', -1)) AS m,
+           `fortune_jia_zi`(SUBSTRING_INDEX(SUBSTRING_INDEX(g, ' ', 3), ' ', -1)) AS d,
+           `fortune_jia_zi`(SUBSTRING_INDEX(SUBSTRING_INDEX(g, ' ', 4), ' ', -1)) AS h
+    FROM (
+        SELECT id, TRIM(REGEXP_REPLACE(`gan_zhi`, '[[:space:]]+', ' ')) AS g
+        FROM `t_fortune_record`
+        WHERE `gan_zhi_code` IS NULL AND `gan_zhi` IS NOT NULL
+    ) t
+    WHERE CHAR_LENGTH(g) - CHAR_LENGTH(REPLACE(g, ' ', '')) >= 3
+) p ON p.id = r.id
+SET r.`gan_zhi_code` = (MOD(p.d, 10) << 24) | (p.d << 18) | (p.y << 12) | (p.m << 6) | p.h
+WHERE p.y IS NOT NULL AND p.m IS NOT NULL AND p.d IS NOT NULL AND p.h IS NOT NULL;
+
+DROP PROCEDURE IF EXISTS `upgrade_gan_zhi_code`;
+DROP FUNCTION IF EXISTS `fortune_jia_zi`;
+
+-- 仍为空的记录（gan_zhi 缺失或无法解析）不计入按日主统计，/fortune/stats/day-master 以"未知"返回其数量
+SELECT COUNT(*) AS `remaining_without_code` FROM `t_fortune_record` WHERE `gan_zhi_code` IS NULL AND `deleted` = 0;
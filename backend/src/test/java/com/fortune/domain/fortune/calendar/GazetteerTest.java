@@ -0,0 +1,62 @@
+package com.fortune.domain.fortune.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 地名经度索引测试
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class GazetteerTest {
+
+    private static final double DELTA = 0.001;
+
+    @Test
+    void generatesShortNamesFromSuffixes() {
+        assertEquals(116.41, Gazetteer.longitudeOf("北京"), DELTA);
+        assertEquals(121.47, Gazetteer.longitudeOf("上海"), DELTA);
+        assertEquals(117.20, Gazetteer.longitudeOf("天津"), DELTA);
+        assertEquals(106.55, Gazetteer.longitudeOf("重庆"), DELTA);
+        assertEquals(104.23, Gazetteer.longitudeOf("文山"), DELTA);
+        assertEquals("大理", Gazetteer.shortNameOf("大理白族自治州"));
+        assertEquals("文山", Gazetteer.shortNameOf("文山壮族苗族自治州"));
+        assertEquals("内蒙古", Gazetteer.shortNameOf("内蒙古自治区"));
+        assertNull(Gazetteer.shortNameOf("芒市"));
+    }
+
+    @Test
+    void generatedShortNameDoesNotShadowExistingName() {
+        assertEquals(110.20, Gazetteer.longitudeOf("海南"), DELTA);
+        assertEquals(100.62, Gazetteer.longitudeOf("青海海南"), DELTA);
+    }
+
+    @Test
+    void resolvesMostSpecificLevel() {
+        assertEquals(113.26, Gazetteer.longitudeOf("广东省广州市天河区"), DELTA);
+        assertEquals(116.44, Gazetteer.longitudeOf("北京市朝阳区"), DELTA);
+    }
+
+    @Test
+    void disambiguatesByEarlierProvince() {
+        assertEquals(120.45, Gazetteer.longitudeOf("辽宁朝阳"), DELTA);
+        assertEquals(120.45, Gazetteer.longitudeOf("辽宁省朝阳市"), DELTA);
+        assertEquals(116.44, Gazetteer.longitudeOf("北京朝阳"), DELTA);
+    }
+
+    @Test
+    void fallsBackToEarlierHitWhenLaterNameIsElsewhere() {
+        assertEquals(125.32, Gazetteer.longitudeOf("吉林省长春市朝阳区"), DELTA);
+    }
+
+    @Test
+    void unknownPlaceIsNaN() {
+        assertTrue(Double.isNaN(Gazetteer.longitudeOf("火星")));
+        assertTrue(Double.isNaN(Gazetteer.longitudeOf("")));
+        assertTrue(Double.isNaN(Gazetteer.longitudeOf(null)));
+    }
+}
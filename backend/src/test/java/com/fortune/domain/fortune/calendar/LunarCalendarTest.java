@@ -0,0 +1,145 @@
+package com.fortune.domain.fortune.calendar;
+
+import com.fortune.domain.fortune.valueobject.LunarDate;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 农历历法引擎测试，逐月、逐日对照 calendar/lunar-reference.txt 参考表
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class LunarCalendarTest {
+
+    private static final String REFERENCE = "/calendar/lunar-reference.txt";
+
+    private static final List<Month> MONTHS = loadReference();
+
+    @Test
+    void referenceCoversSupportedRange() {
+        Month first = MONTHS.get(0);
+        Month last = MONTHS.get(MONTHS.size() - 1);
+        assertEquals(LunarCalendar.MIN_YEAR, first.year);
+        assertEquals(LunarCalendar.MAX_YEAR, last.year);
+        assertEquals(LocalDate.of(1900, 1, 31), first.start);
+        assertEquals(LocalDate.of(2101, 1, 28), last.start.plusDays(last.days - 1L));
+        for (int i = 1; i < MONTHS.size(); i++) {
+            Month previous = MONTHS.get(i - 1);
+            assertEquals(previous.start.plusDays(previous.days), MONTHS.get(i).start, MONTHS.get(i).toString());
+        }
+    }
+
+    @Test
+    void monthStartsAndLengthsMatchReference() {
+        for (Month month : MONTHS) {
+            assertEquals(month.start, LunarCalendar.toSolar(month.year, month.month, 1, month.leap), month.toString());
+            assertEquals(month.days, LunarCalendar.monthDays(month.year, month.month, month.leap), month.toString());
+        }
+    }
+
+    @Test
+    void leapMonthsMatchReference() {
+        int[] expected = new int[LunarCalendar.MAX_YEAR - LunarCalendar.MIN_YEAR + 1];
+        for (Month month : MONTHS) {
+            if (month.leap) {
+                expected[month.year - LunarCalendar.MIN_YEAR] = month.month;
+            }
+        }
+        for (int year = LunarCalendar.MIN_YEAR; year <= LunarCalendar.MAX_YEAR; year++) {
+            assertEquals(expected[year - LunarCalendar.MIN_YEAR], LunarCalendar.leapMonth(year), "农历" + year + "年");
+        }
+    }
+
+    @Test
+    void everyDayConvertsBothWays() {
+        for (Month month : MONTHS) {
+            for (int day = 1; day <= month.days; day++) {
+                LocalDate solar = month.start.plusDays(day - 1L);
+                LunarDate lunar = LunarCalendar.fromSolar(solar);
+                String message = solar + " " + month;
+                assertEquals(month.year, lunar.getYear(), message);
+                assertEquals(month.month, lunar.getMonth(), message);
+                assertEquals(day, lunar.getDay(), message);
+                assertEquals(month.leap, lunar.getIsLeapMonth(), message);
+                assertEquals(solar, LunarCalendar.toSolar(month.year, month.month, day, month.leap), message);
+            }
+        }
+    }
+
+    @Test
+    void formatsLeapMonth() {
+        assertEquals("农历2020年闰四月廿九", LunarCalendar.fromSolar(LocalDate.of(2020, 6, 20)).toChineseString());
+        assertEquals("农历2057年九月初一", LunarCalendar.fromSolar(LocalDate.of(2057, 9, 28)).toChineseString());
+    }
+
+    @Test
+    void rejectsDatesOutsideTable() {
+        assertTrue(LunarCalendar.isSupported(LocalDate.of(2101, 1, 28)));
+        assertFalse(LunarCalendar.isSupported(LocalDate.of(2101, 1, 29)));
+        assertThrows(IllegalArgumentException.class, () -> LunarCalendar.fromSolar(LocalDate.of(2101, 1, 29)));
+        assertThrows(IllegalArgumentException.class, () -> LunarCalendar.toSolar(2101, 1, 1, false));
+        assertThrows(IllegalArgumentException.class, () -> LunarCalendar.toSolar(2020, 5, 1, true));
+        assertThrows(IllegalArgumentException.class, () -> LunarCalendar.toSolar(2057, 8, 30, false));
+    }
+
+    private static List<Month> loadReference() {
+        InputStream in = LunarCalendarTest.class.getResourceAsStream(REFERENCE);
+        assertNotNull(in, "缺少参考表 " + REFERENCE);
+        List<Month> months = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                boolean leap = parts[1].startsWith("闰");
+                months.add(new Month(Integer.parseInt(parts[0]),
+                                     Integer.parseInt(leap ? parts[1].substring(1) : parts[1]), leap,
+                                     LocalDate.parse(parts[2]), Integer.parseInt(parts[3])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return months;
+    }
+
+    private static final class Month {
+
+        final int year;
+        final int month;
+        final boolean leap;
+        final LocalDate start;
+        final int days;
+
+        Month(int year, int month, boolean leap, LocalDate start, int days) {
+            this.year = year;
+            this.month = month;
+            this.leap = leap;
+            this.start = start;
+            this.days = days;
+        }
+
+        @Override
+        public String toString() {
+            return "农历" + year + "年" + (leap ? "闰" : "") + month + "月";
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.calendar.SolarTerms;
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 八字反查测试：排盘后反查，候选时段必须包含原出生时刻
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class BaZiReverseIndexTest {
+
+    private static final long FIRST_MINUTE = SolarTerms.toEpochMinute(LocalDateTime.of(1900, 1, 1, 0, 0));
+
+    private static final long END_MINUTE = SolarTerms.toEpochMinute(LocalDateTime.of(2101, 1, 1, 0, 0));
+
+    @Test
+    void roundTripsSampledMinutes() {
+        Random random = new Random(20240101L);
+        for (int i = 0; i < 50000; i++) {
+            assertRoundTrip(FIRST_MINUTE + (long) (random.nextDouble() * (END_MINUTE - FIRST_MINUTE)));
+        }
+    }
+
+    @Test
+    void roundTripsAroundDayChange() {
+        Random random = new Random(20240102L);
+        for (int i = 0; i < 2000; i++) {
+            long day = SolarTerms.toEpochMinute(LocalDateTime.of(1900 + random.nextInt(201), 1 + random.nextInt(12),
+                                                                 1 + random.nextInt(28), 23, 0));
+            assertRoundTrip(day - 1);
+            assertRoundTrip(day);
+            // 子时跨民用日的两段
+            assertRoundTrip(day + 59);
+            assertRoundTrip(day + 60);
+        }
+    }
+
+    @Test
+    void roundTripsAroundEveryJie() {
+        for (int term = 0; term < SolarTerms.size(); term += 2) {
+            long minute = SolarTerms.minuteOf(term);
+            if (minute - 1 >= FIRST_MINUTE && minute < END_MINUTE) {
+                assertRoundTrip(minute - 1);
+                assertRoundTrip(minute);
+            }
+        }
+    }
+
+    @Test
+    void mismatchedHourStemHasNoResult() {
+        GanZhi chart = BaZiEngine.calculate(SolarTerms.toEpochMinute(LocalDateTime.of(1990, 5, 15, 10, 30)));
+        for (int shift = 12; shift < 60; shift += 12) {
+            // 时支不变、天干错开
+            int hour = (chart.getHourJiaZi() + shift) % 60;
+            assertTrue(BaZiReverseIndex.lookup(chart.getYearJiaZi(), chart.getMonthJiaZi(), chart.getDayJiaZi(), hour)
+                               .isEmpty(), "时柱" + hour);
+        }
+    }
+
+    @Test
+    void rejectsInvalidPillars() {
+        assertThrows(IllegalArgumentException.class, () -> BaZiReverseIndex.lookup(60, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> BaZiReverseIndex.lookup(0, -1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> BaZiReverseIndex.lookup(0, 0, 0, -2));
+    }
+
+    private static void assertRoundTrip(long minute) {
+        GanZhi chart = BaZiEngine.calculate(minute);
+        String message = chart.format() + " @ " + minute;
+        assertTrue(contains(BaZiReverseIndex.lookup(chart.getYearJiaZi(), chart.getMonthJiaZi(), chart.getDayJiaZi(),
+                                                    chart.getHourJiaZi()), minute), message);
+        assertTrue(contains(BaZiReverseIndex.lookup(chart.getYearJiaZi(), chart.getMonthJiaZi(), chart.getDayJiaZi(),
+                                                    -1), minute), message + "（时辰未知）");
+    }
+
+    private static boolean contains(List<long[]> intervals, long minute) {
+        for (long[] interval : intervals) {
+            if (interval[0] <= minute && minute < interval[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.valueobject.BirthInfo;
+import com.fortune.domain.fortune.valueobject.DaYun;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 大运流年时间线测试
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class DaYunTimelineTest {
+
+    /**
+     * 1990-05-15 巳时：庚午年（阳年）辛巳月，男顺行至芒种，女逆行至立夏
+     */
+    @Test
+    void directionAndStartAgeByGender() {
+        DaYunTimeline male = DaYunTimeline.of(birth("1990-05-15", "巳时", "男"));
+        assertTrue(male.isForward());
+        assertEquals(7, male.getStartAgeYears());
+        assertEquals(3, male.getStartAgeMonths());
+        assertEquals(LocalDate.of(1997, 8, 15), male.getStartDate());
+        assertSteps(male, "壬午", "癸未", "甲申");
+
+        DaYunTimeline female = DaYunTimeline.of(birth("1990-05-15", "巳时", "女"));
+        assertFalse(female.isForward());
+        assertEquals(3, female.getStartAgeYears());
+        assertEquals(1, female.getStartAgeMonths());
+        assertEquals(LocalDate.of(1993, 6, 15), female.getStartDate());
+        assertSteps(female, "庚辰", "己卯", "戊寅");
+    }
+
+    /**
+     * 1990年立春交节于 02-04 10:14：交节那一分钟已是庚午年戊寅月，前一分钟仍是己巳年丁丑月
+     */
+    @Test
+    void bornExactlyOnJie() {
+        DaYunTimeline female = DaYunTimeline.of(birth("1990-02-04", "10:14", "女"));
+        assertFalse(female.isForward());
+        assertEquals(0, female.getStartAgeYears());
+        assertEquals(0, female.getStartAgeMonths());
+        assertEquals(LocalDate.of(1990, 2, 4), female.getStartDate());
+        assertSteps(female, "丁丑", "丙子");
+
+        DaYunTimeline male = DaYunTimeline.of(birth("1990-02-04", "10:14", "男"));
+        assertTrue(male.isForward());
+        assertEquals(9, male.getStartAgeYears());
+        assertEquals(11, male.getStartAgeMonths());
+        assertSteps(male, "己卯", "庚辰");
+
+        DaYunTimeline before = DaYunTimeline.of(birth("1990-02-04", "10:13", "女"));
+        assertTrue(before.isForward());
+        assertEquals(0, before.getStartAgeYears());
+        assertEquals(0, before.getStartAgeMonths());
+        assertSteps(before, "戊寅", "己卯");
+    }
+
+    /**
+     * 节气表首个节为 1899-01-05 20:17 小寒（戊戌年乙丑月），逆行时以它为起点
+     */
+    @Test
+    void bornInFirstXiaoHanOfTable() {
+        DaYunTimeline female = DaYunTimeline.of(birth("1899-01-06", "12:00", "女"));
+        assertFalse(female.isForward());
+        assertEquals(0, female.getStartAgeYears());
+        // 距小寒15小时43分，每6小时折一个月
+        assertEquals(2, female.getStartAgeMonths());
+        assertSteps(female, "甲子", "癸亥");
+
+        DaYunTimeline male = DaYunTimeline.of(birth("1899-01-06", "12:00", "男"));
+        assertTrue(male.isForward());
+        assertEquals(9, male.getStartAgeYears());
+        assertEquals(7, male.getStartAgeMonths());
+        assertSteps(male, "丙寅", "丁卯");
+
+        DaYunTimeline onJie = DaYunTimeline.of(birth("1899-01-05", "20:17", "女"));
+        assertEquals(0, onJie.getStartAgeYears());
+        assertEquals(0, onJie.getStartAgeMonths());
+
+        assertThrows(IllegalArgumentException.class, () -> DaYunTimeline.of(birth("1899-01-04", "12:00", "女")));
+    }
+
+    @Test
+    void stepsCarryTenLiuNian() {
+        List<DaYun> steps = DaYunTimeline.of(birth("1990-05-15", "巳时", "男")).slice(1, 2);
+        assertEquals(2, steps.size());
+        DaYun second = steps.get(0);
+        assertEquals(2, second.getIndex());
+        assertEquals(17, second.getStartAge());
+        assertEquals(2007, second.getStartYear());
+        assertEquals(2016, second.getEndYear());
+        assertEquals(10, second.getLiuNian().size());
+        assertEquals("丁亥", second.getLiuNian().get(0).getGanZhi());
+        assertEquals(12, DaYunTimeline.of(birth("1990-05-15", "巳时", "男")).slice(0, 20).size());
+    }
+
+    @Test
+    void rejectsUnknownGender() {
+        assertThrows(IllegalArgumentException.class, () -> DaYunTimeline.of(birth("1990-05-15", "巳时", "未知")));
+    }
+
+    private static void assertSteps(DaYunTimeline timeline, String... ganZhi) {
+        List<DaYun> steps = timeline.slice(0, ganZhi.length);
+        for (int i = 0; i < ganZhi.length; i++) {
+            assertEquals(ganZhi[i], steps.get(i).getGanZhi(), "第" + (i + 1) + "步大运");
+        }
+    }
+
+    private static BirthInfo birth(String date, String time, String gender) {
+        BirthInfo birthInfo = new BirthInfo();
+        birthInfo.setBirthDate(LocalDate.parse(date));
+        birthInfo.setBirthTime(time);
+        birthInfo.setGender(gender);
+        return birthInfo;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fortune.domain.fortune.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 五行分析测试
+ *
+ * 十神与藏干十神的表都在类加载时算好，这里在全新的类加载器中按不同顺序首次加载，确认结果与加载顺序无关。
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class WuXingAnalyzerTest {
+
+    /**
+     * 庚午 辛巳 庚辰 丙子，日主庚
+     */
+    private static final int[] CHART = {6, 17, 16, 12};
+
+    private static final List<String> EXPECTED_HIDDEN = Arrays.asList(
+            "丁正官 己正印", "丙七杀 戊偏印 庚比肩", "戊偏印 乙正财 癸伤官", "癸伤官");
+
+    @Test
+    void hiddenShiShenWhenShiShenLoadsFirst() throws Exception {
+        try (URLClassLoader loader = freshLoader()) {
+            Class<?> shiShen = loader.loadClass(ShiShen.class.getName());
+            assertEquals(7, shiShen.getMethod("ofStem", int.class, int.class).invoke(null, 6, 3));
+            assertEquals(EXPECTED_HIDDEN, hiddenShiShen(loader));
+        }
+    }
+
+    @Test
+    void hiddenShiShenWhenAnalyzerLoadsFirst() throws Exception {
+        try (URLClassLoader loader = freshLoader()) {
+            assertEquals(EXPECTED_HIDDEN, hiddenShiShen(loader));
+        }
+    }
+
+    @Test
+    void hiddenShiShenInCurrentLoader() {
+        assertEquals(EXPECTED_HIDDEN, WuXingAnalyzer.analyze(
+                com.fortune.domain.fortune.valueobject.GanZhi.of(CHART[0], CHART[1], CHART[2], CHART[3]))
+                .getHiddenShiShen());
+    }
+
+    private static Object hiddenShiShen(ClassLoader loader) throws Exception {
+        Class<?> ganZhi = loader.loadClass("com.fortune.domain.fortune.valueobject.GanZhi");
+        Object chart = ganZhi.getMethod("of", int.class, int.class, int.class, int.class)
+                .invoke(null, CHART[0], CHART[1], CHART[2], CHART[3]);
+        Object analysis = loader.loadClass(WuXingAnalyzer.class.getName()).getMethod("analyze", ganZhi).invoke(null, chart);
+        return analysis.getClass().getMethod("getHiddenShiShen").invoke(analysis);
+    }
+
+    /**
+     * 不委托给当前类加载器，项目类全部重新加载、重新初始化
+     */
+    private static URLClassLoader freshLoader() {
+        URL classes = ShiShen.class.getProtectionDomain().getCodeSource().getLocation();
+        return new URLClassLoader(new URL[] {classes}, ClassLoader.getPlatformClassLoader());
+    }
+}
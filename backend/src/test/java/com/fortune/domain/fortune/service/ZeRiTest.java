@@ -0,0 +1,88 @@
+package com.fortune.domain.fortune.service;
+
+import com.fortune.domain.fortune.valueobject.GanZhi;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 择日测试：分块剪枝扫描与逐日打分后全量排序的结果逐项对照
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class ZeRiTest {
+
+    private static final String[] CHARTS = {"庚午 辛巳 庚辰 辛巳", "甲子 丙寅 戊辰 壬子", "癸亥 乙卯 丁酉 庚戌"};
+
+    private static final String[] PURPOSES = {"嫁娶", "搬家", "签约", "开业", "出行", "动土"};
+
+    @Test
+    void selectMatchesBruteForceOverOneYear() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        int tiesAtCut = 0;
+        for (String chart : CHARTS) {
+            for (String purpose : PURPOSES) {
+                ZeRi zeRi = ZeRi.of(GanZhi.parse(chart), purpose);
+                List<LocalDate> expected = bruteForce(zeRi, from, to);
+                for (int top = 1; top <= 40; top++) {
+                    String message = chart + " " + purpose + " top=" + top;
+                    assertEquals(expected.subList(0, top), zeRi.select(from, to, top), message);
+                    if (zeRi.score(expected.get(top - 1)) == zeRi.score(expected.get(top))) {
+                        tiesAtCut++;
+                    }
+                }
+                assertEquals(expected, zeRi.select(from, to, expected.size()), chart + " " + purpose);
+            }
+        }
+        // 同分的日子跨过第N名时，须按日期先后取舍
+        assertTrue(tiesAtCut > 0);
+    }
+
+    @Test
+    void selectMatchesBruteForceAcrossYearEnd() {
+        LocalDate from = LocalDate.of(2024, 11, 17);
+        LocalDate to = LocalDate.of(2025, 11, 16);
+        for (String chart : CHARTS) {
+            ZeRi zeRi = ZeRi.of(GanZhi.parse(chart), "嫁娶");
+            List<LocalDate> expected = bruteForce(zeRi, from, to);
+            for (int top : new int[]{1, 7, 10, 30, 100}) {
+                assertEquals(expected.subList(0, top), zeRi.select(from, to, top), chart + " top=" + top);
+            }
+        }
+    }
+
+    @Test
+    void emptyRangeAndNonPositiveTop() {
+        ZeRi zeRi = ZeRi.of(GanZhi.parse(CHARTS[0]), "move");
+        assertEquals("搬家", zeRi.getPurpose());
+        assertTrue(zeRi.select(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 31), 10).isEmpty());
+        assertTrue(zeRi.select(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 0).isEmpty());
+        assertEquals(1, zeRi.select(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), 10).size());
+    }
+
+    @Test
+    void rejectsUnknownPurpose() {
+        assertThrows(IllegalArgumentException.class, () -> ZeRi.of(GanZhi.parse(CHARTS[0]), "未知"));
+    }
+
+    /**
+     * 逐日打分，按得分降序、同分按日期先后全量排序
+     */
+    private static List<LocalDate> bruteForce(ZeRi zeRi, LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.add(date);
+        }
+        days.sort(Comparator.comparingInt(zeRi::score).reversed().thenComparing(Comparator.naturalOrder()));
+        return days;
+    }
+}
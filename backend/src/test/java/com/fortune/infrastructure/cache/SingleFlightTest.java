@@ -0,0 +1,84 @@
+package com.fortune.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求合并测试
+ *
+ * @author fortune
+ * @since 2024-01-01
+ */
+class SingleFlightTest {
+
+    @Test
+    void followerAttachesToLeaderWithoutRunningLoader() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = flights.execute("k", () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> follower = flights.execute("k", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertFalse(leader.isDone());
+        assertFalse(follower.isDone());
+        assertEquals(1, flights.inFlightCount());
+
+        pending.complete("value");
+        assertEquals("value", leader.join());
+        assertEquals("value", follower.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, flights.getCoalesced());
+        assertEquals(0, flights.inFlightCount());
+    }
+
+    @Test
+    void failureReachesEveryCaller() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> leader = flights.execute("k", () -> pending);
+        CompletableFuture<String> follower = flights.execute("k", () -> pending);
+
+        pending.completeExceptionally(new IllegalStateException("调用失败"));
+        assertThrows(IllegalStateException.class, () -> SingleFlight.join(leader));
+        assertThrows(IllegalStateException.class, () -> SingleFlight.join(follower));
+        assertThrows(IllegalArgumentException.class,
+                     () -> SingleFlight.join(flights.execute("k2", () -> { throw new IllegalArgumentException("参数"); })));
+        assertEquals(0, flights.inFlightCount());
+    }
+
+    @Test
+    void cancellingOneCopyDoesNotAffectOthers() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> leader = flights.execute("k", () -> pending);
+        CompletableFuture<String> follower = flights.execute("k", () -> pending);
+
+        follower.cancel(false);
+        pending.complete("value");
+        assertTrue(follower.isCancelled());
+        assertEquals("value", leader.join());
+    }
+
+    @Test
+    void finishedKeyRunsAgain() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(1, flights.execute("k", () -> CompletableFuture.completedFuture(loads.incrementAndGet())).join());
+        assertEquals(2, flights.execute("k", () -> CompletableFuture.completedFuture(loads.incrementAndGet())).join());
+        assertEquals(0, flights.getCoalesced());
+    }
+}